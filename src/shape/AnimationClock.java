@@ -0,0 +1,80 @@
+package shape;
+
+/**
+ * The clock that paces the animations. It counts the time the animations last at normal speed, its
+ * virtual time, and waits that time divided by the playback speed, so the animations can be played
+ * faster or slower than they were made without changing them.
+ */
+public class AnimationClock {
+
+    /**
+     * The speed that plays every frame without waiting between them.
+     */
+    public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+    private volatile double speed;
+    private volatile long virtualMillis;
+    private double pendingMillis;
+
+    /**
+     * Constructs a clock at normal speed.
+     */
+    public AnimationClock() {
+        this.speed = 1;
+    }
+
+    /**
+     * Advances the virtual time and waits for it at the playback speed. The waits shorter than a
+     * millisecond are added up until they reach one.
+     *
+     * @param millis   The virtual time to advance.
+     * @param renderer The renderer that waits.
+     */
+    public void advance(int millis, Renderer renderer) {
+        this.virtualMillis += millis;
+        this.pendingMillis += millis / this.speed;
+
+        if (this.pendingMillis >= 1) {
+            int wait = (int) this.pendingMillis;
+            this.pendingMillis -= wait;
+
+            renderer.wait(wait);
+        }
+    }
+
+    /**
+     * Checks if the animations must be played, at speed 0 only their last frame is drawn.
+     *
+     * @return True if the speed is greater than 0.
+     */
+    public boolean isPlaying() {
+        return this.speed > 0;
+    }
+
+    /**
+     * Sets the playback speed, 1 is normal speed, 0 doesn't play the animations and
+     * {@link #UNLIMITED} plays them without waiting.
+     *
+     * @param speed The playback speed.
+     */
+    public void setSpeed(double speed) {
+        if (speed < 0 || Double.isNaN(speed)) {
+            throw new IllegalArgumentException("The speed must not be negative");
+        }
+
+        this.speed = speed;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Gets the time the animations played so far last at normal speed.
+     *
+     * @return The virtual time in milliseconds.
+     */
+    public long getVirtualMillis() {
+        return virtualMillis;
+    }
+}
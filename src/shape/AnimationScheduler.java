@@ -0,0 +1,152 @@
+package shape;
+
+import utilities.MessageHandler;
+
+import java.util.ArrayDeque;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Plays animations one after the other on its own thread, so the model computes a movement at once
+ * and the caller doesn't wait for it to be drawn. An animation is a number of frames drawn
+ * {@link #FRAME_MILLISECONDS} apart on the {@link AnimationClock}, its last frame is always drawn. The
+ * renderer is chosen once when an animation starts and all its frames draw with it.
+ */
+public class AnimationScheduler {
+
+    /**
+     * The time between two frames of an animation at normal speed.
+     */
+    public static final int FRAME_MILLISECONDS = 8;
+
+    private static final AnimationScheduler INSTANCE = new AnimationScheduler(new AnimationClock());
+
+    private final AnimationClock clock;
+    private final ArrayDeque<Animation> animations;
+    private Thread worker;
+    private long submitted;
+    private long played;
+    private long skipUntil;
+
+    /**
+     * Constructs a scheduler paced by the given clock, its thread starts with the first animation.
+     *
+     * @param clock The clock of the animations.
+     */
+    public AnimationScheduler(AnimationClock clock) {
+        this.clock = clock;
+        this.animations = new ArrayDeque<>();
+    }
+
+    /**
+     * Gets the scheduler shared by the spider webs.
+     *
+     * @return The scheduler.
+     */
+    public static AnimationScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues an animation after the ones already queued.
+     *
+     * @param frames The number of frames, at least 1.
+     * @param frame  Draws the frame with the given number, from 0 to frames - 1, with the given renderer.
+     */
+    public synchronized void submit(int frames, ObjIntConsumer<Renderer> frame) {
+        this.animations.addLast(new Animation(++this.submitted, Math.max(1, frames), frame));
+
+        if (this.worker == null) {
+            this.worker = new Thread(this::run, "spiderweb-animations");
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        this.notifyAll();
+    }
+
+    /**
+     * Fast-forwards the animations queued so far, only their last frame is drawn.
+     */
+    public synchronized void skip() {
+        this.skipUntil = this.submitted;
+    }
+
+    /**
+     * Waits until every animation queued so far has been played.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public synchronized void awaitIdle() throws InterruptedException {
+        long target = this.submitted;
+
+        while (this.played < target) {
+            this.wait();
+        }
+    }
+
+    public AnimationClock getClock() {
+        return clock;
+    }
+
+    private void run() {
+        while (true) {
+            Animation animation;
+
+            synchronized (this) {
+                while (this.animations.isEmpty()) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                animation = this.animations.removeFirst();
+            }
+
+            try {
+                this.play(animation);
+            } catch (RuntimeException e) {
+                // A broken animation must not stop the ones after it, the failure goes to the message channel
+                MessageHandler.showError("Animation failed", e.toString());
+            } finally {
+                synchronized (this) {
+                    this.played = animation.sequence;
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void play(Animation animation) {
+        Renderer renderer = Renderers.current();
+
+        for (int frame = 0; frame < animation.frames; frame++) {
+            boolean isLast = frame == animation.frames - 1;
+
+            if (isLast || (this.clock.isPlaying() && !this.isSkipped(animation))) {
+                animation.frame.accept(renderer, frame);
+
+                if (!isLast) {
+                    this.clock.advance(FRAME_MILLISECONDS, renderer);
+                }
+            }
+        }
+    }
+
+    private synchronized boolean isSkipped(Animation animation) {
+        return animation.sequence <= this.skipUntil;
+    }
+
+    private static final class Animation {
+        private final long sequence;
+        private final int frames;
+        private final ObjIntConsumer<Renderer> frame;
+
+        private Animation(long sequence, int frames, ObjIntConsumer<Renderer> frame) {
+            this.sequence = sequence;
+            this.frames = frames;
+            this.frame = frame;
+        }
+    }
+}
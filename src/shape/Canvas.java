@@ -1,9 +1,15 @@
 package shape;
 
+import spiderweb.metrics.CanvasFrameEvent;
+import spiderweb.metrics.Metrics;
+
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
-import java.util.*;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Canvas is a class to allow for simple graphical drawing on a canvas.
@@ -14,28 +20,52 @@ import java.util.*;
  * @author: Michael Kolling (mik)
  * @version: 1.6 (shapes)
  */
-public class Canvas {
+public class Canvas implements Renderer {
     // Note: The implementation of this class (specifically the handling of
     // shape identity and colors) is slightly more complex than necessary. This
     // is done on purpose to keep the interface and instance fields of the
     // shape objects in this project clean and simple for educational purposes.
 
-    private static Canvas canvasSingleton;
     public static final int WIDTH = 600;
     public static final int HEIGHT = 600;
     public static final Point CENTER = new Point(WIDTH / 2, HEIGHT / 2);
 
     private static final String CANVAS_TITLE = "SpiderWeb Camargo Panqueva";
 
+    // About 60 frames per second
+    private static final int FRAME_MILLISECONDS = 16;
+
+    private static final Map<String, Color> NAMED_COLORS = Map.of(
+            "red", new Color(227, 64, 64),
+            "blue", new Color(64, 64, 227),
+            "yellow", new Color(204, 204, 59),
+            "green", new Color(86, 203, 86),
+            "magenta", new Color(213, 89, 213),
+            "white", new Color(255, 255, 255),
+            "gray", new Color(150, 150, 150));
+    private static final HashMap<String, Color> HEX_COLORS = new HashMap<>();
+    private static final Layer[] LAYERS = Layer.values();
+
     /**
-     * Factory method to get the canvas singleton object.
+     * Factory method to get the canvas singleton object. The canvas is created once, by the first
+     * caller of any thread, and its window is shown once when it is created.
      */
     public static Canvas getCanvas() {
-        if (canvasSingleton == null) {
-            canvasSingleton = new Canvas(CANVAS_TITLE, WIDTH, HEIGHT, Color.white);
+        return CanvasHolder.INSTANCE;
+    }
+
+    /**
+     * Holds the canvas singleton, the JVM creates it once when the holder is first used.
+     */
+    private static final class CanvasHolder {
+        private static final Canvas INSTANCE = create();
+
+        private static Canvas create() {
+            Canvas canvas = new Canvas(CANVAS_TITLE, WIDTH, HEIGHT, Color.white);
+            canvas.setVisible(true);
+
+            return canvas;
         }
-        canvasSingleton.setVisible(true);
-        return canvasSingleton;
     }
 
     //  ----- instance part -----
@@ -43,10 +73,13 @@ public class Canvas {
     private final JFrame frame;
     private final CanvasPane canvas;
     private final Color backgroundColour;
-    private final List<Object> objects;
-    private final HashMap<Object, ShapeDescription> shapes;
-    private Image canvasImage;
-    private Graphics2D graphic;
+    private final EnumMap<Layer, CanvasLayer> layers;
+    private final Timer frameTimer;
+
+    private volatile long frameCount;
+    private volatile long lastFrameNanos;
+    private volatile long maxFrameNanos;
+    private volatile long totalFrameNanos;
 
     /**
      * Create a Canvas.
@@ -57,21 +90,29 @@ public class Canvas {
      * @param bgColour the desired background colour of the canvas
      */
     private Canvas(String title, int width, int height, Color bgColour) {
-        frame = new JFrame();
+        // Without a display there is no window, the layers are still rasterized
+        frame = GraphicsEnvironment.isHeadless() ? null : new JFrame();
         canvas = new CanvasPane();
-        objects = new ArrayList<>();
-        shapes = new HashMap<>();
+        layers = new EnumMap<>(Layer.class);
 
-        frame.setContentPane(canvas);
-        frame.setTitle(title);
-        frame.setResizable(false);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        for (Layer layer : LAYERS) {
+            layers.put(layer, new CanvasLayer(width, height));
+        }
 
         canvas.setPreferredSize(new Dimension(width, height));
-
         backgroundColour = bgColour;
-        frame.pack();
-        frame.setLocationRelativeTo(null);
+
+        if (frame != null) {
+            frame.setContentPane(canvas);
+            frame.setTitle(title);
+            frame.setResizable(false);
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+        }
+
+        frameTimer = new Timer(FRAME_MILLISECONDS, event -> renderFrame());
+        frameTimer.start();
     }
 
     /**
@@ -82,72 +123,97 @@ public class Canvas {
      * @param visible boolean value representing the desired visibility of
      *                the canvas (true or false)
      */
+    @Override
     public void setVisible(boolean visible) {
-
-        if (graphic == null) {
-            // first time: instantiate the off-screen image and fill it with
-            // the background colour
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
-            graphic = (Graphics2D) canvasImage.getGraphics();
-            graphic.setColor(backgroundColour);
-            graphic.fillRect(0, 0, size.width, size.height);
-            graphic.setColor(Color.black);
+        if (frame != null) {
+            // Swing components must only be touched on the event dispatch thread
+            SwingUtilities.invokeLater(() -> frame.setVisible(visible));
         }
+    }
 
-        frame.setVisible(visible);
+    /**
+     * Draw a given shape onto the web layer of the canvas.
+     *
+     * @param referenceObject an object to define identity for this shape
+     * @param color           the color of the shape
+     * @param shape           the shape object to be drawn on the canvas
+     */
+    @Override
+    public void draw(Object referenceObject, String color, Shape shape) {
+        draw(referenceObject, color, shape, Layer.WEB);
     }
 
     /**
-     * Draw a given shape onto the canvas.
+     * Draw a given shape onto a layer of the canvas. The shape is drawn on
+     * top of the others of its layer in the next frame.
      *
      * @param referenceObject an object to define identity for this shape
      * @param color           the color of the shape
      * @param shape           the shape object to be drawn on the canvas
+     * @param layer           the layer of the shape
      */
     // Note: this is a slightly backwards way of maintaining the shape
     // objects. It is carefully designed to keep the visible shape interfaces
     // in this project clean and simple for educational purposes.
-    public void draw(Object referenceObject, String color, Shape shape) {
-        objects.remove(referenceObject);   // just in case it was already there
-        objects.add(referenceObject);      // add at the end
-        shapes.put(referenceObject, new ShapeDescription(shape, color));
-        redraw();
+    @Override
+    public synchronized void draw(Object referenceObject, String color, Shape shape, Layer layer) {
+        for (Layer other : LAYERS) {
+            if (other != layer) {
+                layers.get(other).remove(referenceObject);
+            }
+        }
+
+        layers.get(layer).put(referenceObject, color, shape);
     }
 
     /**
-     * Erase a given shape's from the screen.
+     * Erase a given shape's from the screen in the next frame.
      *
      * @param referenceObject the shape object to be erased
      */
-    public void erase(Object referenceObject) {
-        objects.remove(referenceObject);   // just in case it was already there
-        shapes.remove(referenceObject);
-        redraw();
+    @Override
+    public synchronized void erase(Object referenceObject) {
+        for (CanvasLayer layer : layers.values()) {
+            layer.remove(referenceObject);
+        }
     }
 
     /**
-     * Set the foreground colour of the Canvas.
+     * Get the colour for a colour name, or for a HEX colour at the start of
+     * the string. Only the HEX part is kept to look the colour up, so bridge
+     * colours like '#ff0000-3-40' share a single entry, and a plain HEX
+     * colour is looked up as it is.
      *
-     * @param colorString the new colour for the foreground of the Canvas
+     * @param colorString the name of the colour
+     * @return the colour, black if the name is unknown
      */
-    public void setForegroundColor(String colorString) {
-        // if colorString starts with a HEX color with 6 chars extract it and ignore the rest
-        if (colorString.matches("^#[A-Fa-f0-9]{6}.*")) {
-            graphic.setColor(Color.decode(colorString.substring(0, 7)));
-            return;
+    private static Color toColor(String colorString) {
+        if (isHexColor(colorString)) {
+            String hex = colorString.length() == 7 ? colorString : colorString.substring(0, 7);
+
+            synchronized (HEX_COLORS) {
+                return HEX_COLORS.computeIfAbsent(hex, Color::decode);
+            }
         }
 
-        switch (colorString) {
-            case "red" -> graphic.setColor(new Color(227, 64, 64));
-            case "blue" -> graphic.setColor(new Color(64, 64, 227));
-            case "yellow" -> graphic.setColor(new Color(204, 204, 59));
-            case "green" -> graphic.setColor(new Color(86, 203, 86));
-            case "magenta" -> graphic.setColor(new Color(213, 89, 213));
-            case "white" -> graphic.setColor(new Color(255, 255, 255));
-            case "gray" -> graphic.setColor(new Color(150, 150, 150));
-            default -> graphic.setColor(new Color(0, 0, 0));
+        return NAMED_COLORS.getOrDefault(colorString, Color.BLACK);
+    }
+
+    /**
+     * Check if the string starts with a HEX colour of 6 digits.
+     */
+    private static boolean isHexColor(String colorString) {
+        if (colorString.length() < 7 || colorString.charAt(0) != '#') {
+            return false;
         }
+
+        for (int i = 1; i < 7; i++) {
+            if ("0123456789abcdefABCDEF".indexOf(colorString.charAt(i)) < 0) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
@@ -157,6 +223,7 @@ public class Canvas {
      *
      * @param milliseconds the number
      */
+    @Override
     public void wait(int milliseconds) {
         try {
             Thread.sleep(milliseconds);
@@ -166,25 +233,82 @@ public class Canvas {
     }
 
     /**
-     * Redraw all shapes currently on the Canvas.
+     * Gets the number of frames rendered since the canvas was created.
+     *
+     * @return the number of frames
      */
-    private void redraw() {
-        erase();
-        for (Object object : objects) {
-            shapes.get(object).draw(graphic);
-        }
-        canvas.repaint();
+    public long getFrameCount() {
+        return frameCount;
     }
 
     /**
-     * Erase the whole canvas. (Does not repaint.)
+     * Gets the time it took to render the last frame.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * Gets the longest time it took to render a frame.
+     *
+     * @return the time in nanoseconds
      */
-    private void erase() {
-        Color original = graphic.getColor();
-        graphic.setColor(backgroundColour);
-        Dimension size = canvas.getSize();
-        graphic.fill(new java.awt.Rectangle(0, 0, size.width, size.height));
-        graphic.setColor(original);
+    public long getMaxFrameNanos() {
+        return maxFrameNanos;
+    }
+
+    /**
+     * Gets the average time it took to render a frame.
+     *
+     * @return the time in nanoseconds, or 0 if no frame was rendered
+     */
+    public long getAverageFrameNanos() {
+        long frames = frameCount;
+        return frames == 0 ? 0 : totalFrameNanos / frames;
+    }
+
+    /**
+     * Rasterize again the layers whose shapes changed since the last frame
+     * and repaint. Called by the frame timer on the event dispatch thread,
+     * so any number of changes between two frames cost a single redraw, and
+     * moving the spider doesn't rasterize the web again.
+     */
+    private synchronized void renderFrame() {
+        int redrawnLayers = 0;
+        long start = System.nanoTime();
+        CanvasFrameEvent event = CanvasFrameEvent.beginIfRecording();
+
+        for (CanvasLayer layer : layers.values()) {
+            if (layer.render()) {
+                redrawnLayers++;
+            }
+        }
+
+        if (redrawnLayers == 0) {
+            return;
+        }
+
+        canvas.repaint();
+
+        long elapsed = System.nanoTime() - start;
+        lastFrameNanos = elapsed;
+        maxFrameNanos = Math.max(maxFrameNanos, elapsed);
+        totalFrameNanos += elapsed;
+        frameCount++;
+
+        Metrics.render().recordFrame(elapsed, redrawnLayers);
+
+        if (event != null) {
+            int shapeCount = 0;
+
+            for (CanvasLayer layer : layers.values()) {
+                shapeCount += layer.shapes.size();
+            }
+
+            CanvasFrameEvent.commit(event, shapeCount, redrawnLayers);
+        }
     }
 
     /************************************************************************
@@ -194,26 +318,105 @@ public class Canvas {
      */
     private class CanvasPane extends JPanel {
         public void paint(Graphics g) {
-            g.drawImage(canvasImage, 0, 0, null);
+            g.setColor(backgroundColour);
+            g.fillRect(0, 0, getWidth(), getHeight());
+
+            synchronized (Canvas.this) {
+                for (CanvasLayer layer : layers.values()) {
+                    g.drawImage(layer.image, 0, 0, null);
+                }
+            }
         }
     }
 
     /************************************************************************
-     * Inner class CanvasPane - the actual canvas component contained in the
-     * Canvas frame. This is essentially a JPanel with added capability to
-     * refresh the image drawn on it.
+     * Inner class CanvasLayer - the shapes of a layer, in drawing order, and
+     * the transparent image they were last rasterized to.
+     */
+    private static class CanvasLayer {
+        private final LinkedHashMap<Object, ShapeDescription> shapes;
+        private final BufferedImage image;
+        private final Graphics2D graphic;
+        private boolean dirty;
+
+        public CanvasLayer(int width, int height) {
+            // In access order, so looking a shape up moves it to the end
+            this.shapes = new LinkedHashMap<>(16, 0.75f, true);
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            this.graphic = image.createGraphics();
+        }
+
+        /**
+         * Put a shape on top of the others. Drawing the same reference object
+         * again reuses its description and only replaces the shape, under the
+         * canvas lock, so animations that draw a new copy of their shapes each
+         * frame allocate nothing.
+         */
+        public void put(Object referenceObject, String color, Shape shape) {
+            ShapeDescription previous = shapes.get(referenceObject);
+
+            if (previous == null) {
+                shapes.put(referenceObject, new ShapeDescription(shape, color));
+            } else {
+                previous.shape = shape;
+                previous.setColor(color);
+            }
+
+            dirty = true;
+        }
+
+        public void remove(Object referenceObject) {
+            if (shapes.remove(referenceObject) != null) {
+                dirty = true;
+            }
+        }
+
+        /**
+         * Rasterize the shapes again if any of them changed.
+         *
+         * @return true if the image changed
+         */
+        public boolean render() {
+            if (!dirty) {
+                return false;
+            }
+
+            dirty = false;
+            graphic.setComposite(AlphaComposite.Clear);
+            graphic.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphic.setComposite(AlphaComposite.SrcOver);
+
+            for (ShapeDescription shape : shapes.values()) {
+                shape.draw(graphic);
+            }
+
+            return true;
+        }
+    }
+
+    /************************************************************************
+     * Inner class ShapeDescription - a shape and its colour, resolved only
+     * when the name of the colour changes.
      */
-    private class ShapeDescription {
-        private final Shape shape;
-        private final String colorString;
+    private static class ShapeDescription {
+        private Shape shape;
+        private String colorString;
+        private Color color;
 
         public ShapeDescription(Shape shape, String color) {
             this.shape = shape;
-            this.colorString = color;
+            this.setColor(color);
+        }
+
+        public void setColor(String color) {
+            if (!color.equals(colorString)) {
+                this.colorString = color;
+                this.color = toColor(color);
+            }
         }
 
         public void draw(Graphics2D graphic) {
-            setForegroundColor(colorString);
+            graphic.setColor(color);
             graphic.draw(shape);
             graphic.fill(shape);
         }
@@ -0,0 +1,30 @@
+package shape;
+
+import java.awt.*;
+
+/**
+ * A renderer that draws nothing and never waits, used when there is no display or in test mode.
+ */
+public class HeadlessRenderer implements Renderer {
+
+    public static final HeadlessRenderer INSTANCE = new HeadlessRenderer();
+
+    private HeadlessRenderer() {
+    }
+
+    @Override
+    public void draw(Object referenceObject, String color, Shape shape) {
+    }
+
+    @Override
+    public void erase(Object referenceObject) {
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+    }
+
+    @Override
+    public void wait(int milliseconds) {
+    }
+}
@@ -0,0 +1,16 @@
+package shape;
+
+/**
+ * The layers of the drawing, from bottom to top. Each layer is rasterized only when one of its
+ * shapes changes, so the shapes that move often shouldn't share a layer with the ones that don't.
+ */
+public enum Layer {
+    /**
+     * The strands and bridges, they only change when the spider web changes.
+     */
+    WEB,
+    /**
+     * The spider and its trace, they change on every frame of an animation.
+     */
+    SPIDER
+}
@@ -0,0 +1,53 @@
+package shape;
+
+import java.awt.*;
+
+/**
+ * Draws the shapes of the spider web. The model only talks to a renderer, so it can run with the
+ * canvas window or without any window at all.
+ */
+public interface Renderer {
+
+    /**
+     * Draws a shape, replacing the previous shape of the same reference object.
+     *
+     * @param referenceObject An object to define identity for this shape.
+     * @param color           The color of the shape.
+     * @param shape           The shape to draw.
+     */
+    void draw(Object referenceObject, String color, Shape shape);
+
+    /**
+     * Draws a shape on the given layer, replacing the previous shape of the same reference object.
+     * By default the layer is ignored.
+     *
+     * @param referenceObject An object to define identity for this shape.
+     * @param color           The color of the shape.
+     * @param shape           The shape to draw.
+     * @param layer           The layer of the shape.
+     */
+    default void draw(Object referenceObject, String color, Shape shape, Layer layer) {
+        this.draw(referenceObject, color, shape);
+    }
+
+    /**
+     * Erases the shape of the given reference object.
+     *
+     * @param referenceObject The object that identifies the shape.
+     */
+    void erase(Object referenceObject);
+
+    /**
+     * Shows or hides the drawing.
+     *
+     * @param visible True to show the drawing, false to hide it.
+     */
+    void setVisible(boolean visible);
+
+    /**
+     * Waits between two frames of an animation.
+     *
+     * @param milliseconds The time to wait.
+     */
+    void wait(int milliseconds);
+}
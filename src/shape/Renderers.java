@@ -0,0 +1,42 @@
+package shape;
+
+import spiderweb.main.SpiderWeb;
+
+import java.awt.*;
+
+/**
+ * Chooses the renderer used by the spider web. Unless one is set, the canvas window is used, and the
+ * headless renderer takes its place in test mode or when the JVM has no display.
+ */
+public abstract class Renderers {
+
+    private static volatile Renderer renderer;
+
+    /**
+     * Gets the renderer to draw with.
+     *
+     * @return The renderer that was set, or the default one.
+     */
+    public static Renderer current() {
+        Renderer configured = renderer;
+
+        if (configured != null) {
+            return configured;
+        }
+
+        if (SpiderWeb.TEST_MODE || GraphicsEnvironment.isHeadless()) {
+            return HeadlessRenderer.INSTANCE;
+        }
+
+        return Canvas.getCanvas();
+    }
+
+    /**
+     * Sets the renderer to draw with.
+     *
+     * @param renderer The renderer, or null to go back to the default one.
+     */
+    public static void use(Renderer renderer) {
+        Renderers.renderer = renderer;
+    }
+}
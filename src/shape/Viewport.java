@@ -0,0 +1,141 @@
+package shape;
+
+import interfaces.Copyable;
+
+import java.awt.*;
+
+/**
+ * Projects the polar coordinates of a spider web (strand, distance from the center) onto the canvas.
+ * The edge of the web is always drawn at the same radius in pixels, so any radio fits the canvas, and
+ * the view can be zoomed and panned on top of that. The sine and cosine of every strand are computed
+ * once per number of strands, the first time a point is projected.
+ */
+public class Viewport implements Copyable<Viewport> {
+
+    private final Point center;
+    private final double pixelRadius;
+    private double zoom;
+    private int panX;
+    private int panY;
+
+    private int strandCount;
+    private int radio;
+    private double[] cosines;
+    private double[] sines;
+
+    /**
+     * Constructs a viewport centered on the given point.
+     *
+     * @param center      The point of the canvas where the center of the web is drawn.
+     * @param pixelRadius The radius in pixels of the edge of the web without zoom.
+     */
+    public Viewport(Point center, double pixelRadius) {
+        this.center = new Point(center);
+        this.pixelRadius = pixelRadius;
+        this.zoom = 1;
+        this.strandCount = 1;
+        this.radio = 1;
+    }
+
+    /**
+     * Sets the size of the spider web to project, it only takes effect on the next projection.
+     *
+     * @param strandCount The number of strands.
+     * @param radio       The radio of the spider web.
+     */
+    public void setModel(int strandCount, int radio) {
+        this.strandCount = Math.max(1, strandCount);
+        this.radio = Math.max(1, radio);
+    }
+
+    /**
+     * Projects a point of a strand.
+     *
+     * @param strand   The strand of the point.
+     * @param distance The distance of the point from the center.
+     * @return The point on the canvas.
+     */
+    public Point project(int strand, double distance) {
+        if (cosines == null || cosines.length != strandCount) {
+            this.buildTables();
+        }
+
+        double length = distance / radio * pixelRadius * zoom;
+        Point origin = this.getCenter();
+
+        int x = (int) (origin.x + length * cosines[strand]);
+        int y = (int) (origin.y + length * sines[strand]);
+
+        return new Point(x, y);
+    }
+
+    /**
+     * Projects the end of a strand, on the edge of the spider web.
+     *
+     * @param strand The strand.
+     * @return The point on the canvas.
+     */
+    public Point projectEnd(int strand) {
+        return this.project(strand, radio);
+    }
+
+    /**
+     * Gets the point of the canvas where the center of the web is drawn, after the pan.
+     *
+     * @return The center of the web on the canvas.
+     */
+    public Point getCenter() {
+        return new Point(center.x + panX, center.y + panY);
+    }
+
+    /**
+     * Multiplies the zoom by the given factor.
+     *
+     * @param factor The factor, greater than 1 to zoom in and between 0 and 1 to zoom out.
+     */
+    public void zoom(double factor) {
+        if (factor > 0) {
+            this.zoom *= factor;
+        }
+    }
+
+    /**
+     * Moves the view by the given number of pixels.
+     *
+     * @param dx The horizontal offset.
+     * @param dy The vertical offset.
+     */
+    public void pan(int dx, int dy) {
+        this.panX += dx;
+        this.panY += dy;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    @Override
+    public Viewport copy() {
+        Viewport copy = new Viewport(center, pixelRadius);
+        copy.zoom = zoom;
+        copy.panX = panX;
+        copy.panY = panY;
+        copy.setModel(strandCount, radio);
+
+        return copy;
+    }
+
+    /**
+     * Computes the direction of every strand, strand 0 points right and the next ones go counter-clockwise.
+     */
+    private void buildTables() {
+        cosines = new double[strandCount];
+        sines = new double[strandCount];
+
+        for (int strand = 0; strand < strandCount; strand++) {
+            double angle = 2 * Math.PI * (strandCount - strand) / strandCount;
+            cosines[strand] = Math.cos(angle);
+            sines[strand] = Math.sin(angle);
+        }
+    }
+}
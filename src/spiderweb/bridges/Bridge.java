@@ -1,11 +1,14 @@
 package spiderweb.bridges;
 
 import interfaces.Copyable;
-import shape.Canvas;
+import shape.Renderer;
+import shape.Renderers;
+import shape.Viewport;
 import spiderweb.main.SpiderWeb;
 
 import java.awt.*;
 import java.awt.geom.Line2D;
+import java.util.Objects;
 
 public abstract class Bridge implements Copyable<Bridge> {
 
@@ -13,8 +16,7 @@ public abstract class Bridge implements Copyable<Bridge> {
     protected final int initialStrand;
     protected final int finalStrand;
     protected final String color;
-    protected final Point initialPoint;
-    protected final Point finalPoint;
+    private final int hash;
 
     /**
      * Constructs a new instance of spiderweb.Bridge with the specified parameters.
@@ -22,18 +24,15 @@ public abstract class Bridge implements Copyable<Bridge> {
      * @param distance      The distance of the bridge.
      * @param initialStrand The initial strand connected by the bridge.
      * @param finalStrand   The final strand connected by the bridge.
-     * @param initialPoint  The initial point of the bridge.
-     * @param finalPoint    The final point of the bridge.
      * @param color         The color of the bridge.
      */
-    public Bridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
+    public Bridge(int distance, int initialStrand, int finalStrand, String color) {
         this.distance = distance;
         this.initialStrand = initialStrand;
         this.finalStrand = finalStrand;
         this.color = color;
 
-        this.initialPoint = initialPoint;
-        this.finalPoint = finalPoint;
+        this.hash = Objects.hash(distance, initialStrand, finalStrand, color);
     }
 
     /**
@@ -45,18 +44,23 @@ public abstract class Bridge implements Copyable<Bridge> {
 
     /**
      * Draws the bridge on the canvas.
+     *
+     * @param viewport The viewport that projects the spider web onto the canvas.
      */
-    public void draw() {
-        Canvas canvas = Canvas.getCanvas();
-        canvas.draw(this, this.color, new Line2D.Double(initialPoint.getX(), initialPoint.getY(), finalPoint.getX(), finalPoint.getY()));
+    public void draw(Viewport viewport) {
+        Renderer renderer = Renderers.current();
+        Point initialPoint = viewport.project(initialStrand, distance);
+        Point finalPoint = viewport.project(finalStrand, distance);
+
+        renderer.draw(this, this.color, new Line2D.Double(initialPoint.getX(), initialPoint.getY(), finalPoint.getX(), finalPoint.getY()));
     }
 
     /**
      * Erases the bridge from the canvas.
      */
     public void erase() {
-        Canvas canvas = Canvas.getCanvas();
-        canvas.erase(this);
+        Renderer renderer = Renderers.current();
+        renderer.erase(this);
     }
 
     public int getDistance() {
@@ -77,32 +81,33 @@ public abstract class Bridge implements Copyable<Bridge> {
 
     public abstract Types getType();
 
-    public Point getInitialPoint() {
-        return initialPoint;
-    }
-
-    public Point getFinalPoint() {
-        return finalPoint;
-    }
-
     @Override
     public String toString() {
         return String.format("Initial Strand: %d - Final Strand: %d - Distance: %d - Color: %s", initialStrand, finalStrand, distance, color);
     }
 
-    public boolean equals(Bridge bridge) {
-        // TODO : is equals if is instance of respective Bridge, must be abstract
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Bridge)) {
+            return false;
+        }
+
+        Bridge bridge = (Bridge) obj;
+
         return bridge.initialStrand == this.initialStrand
                 && bridge.finalStrand == this.finalStrand
                 && bridge.distance == this.distance
-                && bridge.color.equals(this.color)
-                && bridge.initialPoint.equals(this.initialPoint)
-                && bridge.finalPoint.equals(this.finalPoint);
+                && bridge.color.equals(this.color);
     }
 
+    /**
+     * Gets the hash code of the bridge, computed once from the same fields compared by equals.
+     *
+     * @return The hash code of the bridge.
+     */
     @Override
-    public boolean equals(Object obj) {
-        return (obj instanceof Bridge) && this.equals((Bridge) obj);
+    public int hashCode() {
+        return hash;
     }
 
     /**
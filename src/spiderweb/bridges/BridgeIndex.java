@@ -0,0 +1,357 @@
+package spiderweb.bridges;
+
+import interfaces.Copyable;
+import utilities.PersistentHashMap;
+import utilities.PersistentList;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The bridges of a spider web in the order they were added, grouped by the strands they touch and
+ * ordered by distance. A strand can't have two bridges at the same distance, so the closest bridge
+ * before or after a distance is a single lookup.
+ * <p>
+ * The index also maps each color to its bridge, and each slot (distance, strand) taken by the end of a
+ * bridge to the bridge, so finding a bridge by its color or checking if a new bridge is in conflict costs
+ * O(1). Each bridge keeps the place it was given when it was added, so removing it finds its place in the
+ * order through its color instead of looking at the other bridges.
+ * <p>
+ * The order and the ends are kept in persistent lists and the colors and the slots in persistent hash
+ * maps, so a copy of the index shares them and every change, on the index or on its copy, costs O(log m).
+ */
+public class BridgeIndex implements Copyable<BridgeIndex> {
+
+    private final PersistentList<Placed> order;
+    private final PersistentList<End> ends;
+    private final PersistentHashMap<String, Placed> colors;
+    private final PersistentHashMap<Long, Bridge> slots;
+    private final List<Bridge> bridges;
+    private long nextPlace;
+
+    /**
+     * Constructs an empty index.
+     */
+    public BridgeIndex() {
+        this(new PersistentList<>(), new PersistentList<>(), new PersistentHashMap<>(), new PersistentHashMap<>(), 0);
+    }
+
+    private BridgeIndex(PersistentList<Placed> order, PersistentList<End> ends, PersistentHashMap<String, Placed> colors,
+                        PersistentHashMap<Long, Bridge> slots, long nextPlace) {
+        this.order = order;
+        this.ends = ends;
+        this.colors = colors;
+        this.slots = slots;
+        this.bridges = new Bridges();
+        this.nextPlace = nextPlace;
+    }
+
+    /**
+     * Adds a bridge after the others and on its two strands.
+     *
+     * @param bridge The bridge to add.
+     */
+    public void add(Bridge bridge) {
+        Placed placed = new Placed(nextPlace++, bridge);
+
+        this.order.add(placed);
+        this.put(placed);
+    }
+
+    /**
+     * Removes a bridge from the order and from its two strands.
+     *
+     * @param bridge The bridge to remove.
+     */
+    public void remove(Bridge bridge) {
+        Placed placed = this.take(bridge);
+
+        if (placed != null) {
+            this.order.remove(this.placeOf(placed));
+        }
+    }
+
+    /**
+     * Replaces several bridges at once, each new bridge takes the place of the old one in the order and
+     * a bridge replaced by itself is removed. All the old bridges leave their strands before the new
+     * ones are put, so a new bridge can take the slot of another old one.
+     *
+     * @param replacements The new bridge of each old one.
+     */
+    public void replace(Map<Bridge, Bridge> replacements) {
+        ArrayList<Placed> taken = new ArrayList<>(replacements.size());
+
+        for (Bridge bridge : replacements.keySet()) {
+            Placed placed = this.take(bridge);
+
+            if (placed != null) {
+                taken.add(placed);
+            }
+        }
+
+        for (Placed placed : taken) {
+            Bridge replacement = replacements.get(placed.bridge);
+            int index = this.placeOf(placed);
+
+            if (replacement == placed.bridge) {
+                this.order.remove(index);
+            } else {
+                Placed replaced = new Placed(placed.place, replacement);
+
+                this.order.set(index, replaced);
+                this.put(replaced);
+            }
+        }
+    }
+
+    /**
+     * Puts a bridge on its two strands and on its color.
+     */
+    private void put(Placed placed) {
+        Bridge bridge = placed.bridge;
+
+        this.addEnd(bridge.getInitialStrand(), bridge);
+        this.addEnd(bridge.getFinalStrand(), bridge);
+        this.colors.put(bridge.getColor(), placed);
+    }
+
+    private void addEnd(int strand, Bridge bridge) {
+        this.slots.put(slotOf(strand, bridge.getDistance()), bridge);
+
+        int index = this.ends.search(end -> end.compareTo(strand, bridge.getDistance()));
+
+        if (index < this.ends.size() && this.ends.get(index).compareTo(strand, bridge.getDistance()) == 0) {
+            this.ends.set(index, new End(strand, bridge));
+        } else {
+            this.ends.add(index, new End(strand, bridge));
+        }
+    }
+
+    /**
+     * Takes a bridge out of its two strands and its color, it keeps its place in the order.
+     *
+     * @return The bridge with its place, or null if the bridge isn't in the index.
+     */
+    private Placed take(Bridge bridge) {
+        Placed placed = this.colors.get(bridge.getColor());
+
+        if (placed == null || placed.bridge != bridge) {
+            return null;
+        }
+
+        this.colors.remove(bridge.getColor());
+        this.remove(bridge.getInitialStrand(), bridge);
+        this.remove(bridge.getFinalStrand(), bridge);
+
+        return placed;
+    }
+
+    private int placeOf(Placed placed) {
+        return this.order.search(other -> Long.compare(other.place, placed.place));
+    }
+
+    private void remove(int strand, Bridge bridge) {
+        Long slot = slotOf(strand, bridge.getDistance());
+
+        if (this.slots.get(slot) == bridge) {
+            this.slots.remove(slot);
+        }
+
+        int index = this.ends.search(end -> end.compareTo(strand, bridge.getDistance()));
+
+        if (index < this.ends.size() && this.ends.get(index).bridge == bridge) {
+            this.ends.remove(index);
+        }
+    }
+
+    /**
+     * Removes all the bridges.
+     */
+    public void clear() {
+        this.order.clear();
+        this.ends.clear();
+        this.colors.clear();
+        this.slots.clear();
+    }
+
+    /**
+     * Gets the bridges in the order they were added.
+     *
+     * @return The bridges, the list follows the changes of the index and must not be modified.
+     */
+    public List<Bridge> getBridges() {
+        return this.bridges;
+    }
+
+    /**
+     * Gets the number of bridges.
+     *
+     * @return The number of bridges.
+     */
+    public int size() {
+        return this.order.size();
+    }
+
+    /**
+     * Gets the bridges that touch the strand, ordered by distance.
+     *
+     * @param strand The strand.
+     * @return The bridges, the collection must not be modified.
+     */
+    public Collection<Bridge> getBridges(int strand) {
+        int from = this.ends.search(end -> end.compareTo(strand, Integer.MIN_VALUE));
+        int to = this.ends.search(end -> end.strand > strand ? 1 : -1);
+        ArrayList<Bridge> bridges = new ArrayList<>(to - from);
+
+        for (End end : this.ends.subList(from, to)) {
+            bridges.add(end.bridge);
+        }
+
+        return bridges;
+    }
+
+    /**
+     * Gets the bridge with the given color.
+     *
+     * @param color The color of the bridge.
+     * @return The bridge, or null if there isn't one.
+     */
+    public Bridge get(String color) {
+        Placed placed = this.colors.get(color);
+        return placed == null ? null : placed.bridge;
+    }
+
+    /**
+     * Checks if a bridge with the given color exists.
+     *
+     * @param color The color of the bridge.
+     * @return True if the bridge exists.
+     */
+    public boolean contains(String color) {
+        return this.colors.containsKey(color);
+    }
+
+    /**
+     * Checks if a bridge between the two strands at the distance would share a strand with a bridge
+     * at the same distance.
+     *
+     * @param distance      The distance of the new bridge.
+     * @param initialStrand The initial strand of the new bridge.
+     * @param finalStrand   The final strand of the new bridge.
+     * @return True if the new bridge is in conflict.
+     */
+    public boolean isInConflict(int distance, int initialStrand, int finalStrand) {
+        return this.slots.containsKey(slotOf(initialStrand, distance)) || this.slots.containsKey(slotOf(finalStrand, distance));
+    }
+
+    /**
+     * Packs a slot in a single key, the distance in the high half and the strand in the low half.
+     */
+    private static Long slotOf(int strand, int distance) {
+        return ((long) distance << 32) | (strand & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the closest bridge on the strand that is farther from the center than the distance.
+     *
+     * @param strand   The strand where the spider is.
+     * @param distance The distance of the spider from the center.
+     * @return The bridge, or null if there isn't one.
+     */
+    public Bridge next(int strand, int distance) {
+        int index = this.ends.search(end -> end.compareTo(strand, distance) <= 0 ? -1 : 1);
+        return index < this.ends.size() && this.ends.get(index).strand == strand ? this.ends.get(index).bridge : null;
+    }
+
+    /**
+     * Gets the closest bridge on the strand that is closer to the center than the distance.
+     *
+     * @param strand   The strand where the spider is.
+     * @param distance The distance of the spider from the center.
+     * @return The bridge, or null if there isn't one.
+     */
+    public Bridge previous(int strand, int distance) {
+        int index = this.ends.search(end -> end.compareTo(strand, distance)) - 1;
+        return index >= 0 && this.ends.get(index).strand == strand ? this.ends.get(index).bridge : null;
+    }
+
+    /**
+     * Copies the index in constant time, the copy shares the order, the ends, the colors and the slots
+     * until one of the two changes them.
+     *
+     * @return The copy of the index.
+     */
+    @Override
+    public BridgeIndex copy() {
+        return new BridgeIndex(this.order.copy(), this.ends.copy(), this.colors.copy(), this.slots.copy(), this.nextPlace);
+    }
+
+    /**
+     * A bridge seen from one of the strands it touches, ordered by strand and then by distance.
+     */
+    private static final class End {
+        private final int strand;
+        private final Bridge bridge;
+
+        private End(int strand, Bridge bridge) {
+            this.strand = strand;
+            this.bridge = bridge;
+        }
+
+        private int compareTo(int strand, int distance) {
+            int comparison = Integer.compare(this.strand, strand);
+            return comparison != 0 ? comparison : Integer.compare(this.bridge.getDistance(), distance);
+        }
+    }
+
+    /**
+     * A bridge with its place in the order, the places only grow so the order is sorted by them.
+     */
+    private static final class Placed {
+        private final long place;
+        private final Bridge bridge;
+
+        private Placed(long place, Bridge bridge) {
+            this.place = place;
+            this.bridge = bridge;
+        }
+    }
+
+    /**
+     * The bridges of the index in order, read through the persistent order.
+     */
+    private final class Bridges extends AbstractList<Bridge> implements RandomAccess {
+
+        @Override
+        public Bridge get(int index) {
+            return order.get(index).bridge;
+        }
+
+        @Override
+        public int size() {
+            return order.size();
+        }
+
+        @Override
+        public Iterator<Bridge> iterator() {
+            Iterator<Placed> placed = order.iterator();
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return placed.hasNext();
+                }
+
+                @Override
+                public Bridge next() {
+                    return placed.next().bridge;
+                }
+            };
+        }
+    }
+}
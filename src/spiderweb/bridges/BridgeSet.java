@@ -0,0 +1,121 @@
+package spiderweb.bridges;
+
+import java.util.Arrays;
+
+/**
+ * Bridges stored by columns, a distance array and a strand array, in the form used by the contest
+ * input ('d t'). It avoids keeping one small array per bridge.
+ */
+public class BridgeSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] distances;
+    private int[] strands;
+    private int size;
+
+    /**
+     * Constructs an empty set of bridges.
+     */
+    public BridgeSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty set of bridges with room for the given number of bridges.
+     *
+     * @param capacity The number of bridges the set can hold without growing.
+     */
+    public BridgeSet(int capacity) {
+        this.distances = new int[capacity];
+        this.strands = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Builds a set of bridges from the contest input in the form {distance, strand}.
+     *
+     * @param bridges The bridges in the form {distance, strand}.
+     * @return The set with the same bridges in the same order.
+     */
+    public static BridgeSet of(int[][] bridges) {
+        BridgeSet bridgeSet = new BridgeSet(bridges.length);
+
+        for (int[] bridge : bridges) {
+            bridgeSet.add(bridge[0], bridge[1]);
+        }
+
+        return bridgeSet;
+    }
+
+    /**
+     * Adds a bridge at the end of the set.
+     *
+     * @param distance The distance of the bridge.
+     * @param strand   The strand where the bridge starts.
+     */
+    public void add(int distance, int strand) {
+        if (size == distances.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, distances.length + (distances.length >> 1));
+            distances = Arrays.copyOf(distances, capacity);
+            strands = Arrays.copyOf(strands, capacity);
+        }
+
+        distances[size] = distance;
+        strands[size] = strand;
+        size++;
+    }
+
+    public int getDistance(int index) {
+        return distances[index];
+    }
+
+    public int getStrand(int index) {
+        return strands[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the bridges, the capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets the column of distances, only the first size() positions are bridges.
+     *
+     * @return The internal array of distances.
+     */
+    public int[] distances() {
+        return distances;
+    }
+
+    /**
+     * Gets the column of strands, only the first size() positions are bridges.
+     *
+     * @return The internal array of strands.
+     */
+    public int[] strands() {
+        return strands;
+    }
+
+    /**
+     * Converts the set to the contest input in the form {distance, strand}.
+     *
+     * @return A new array with one {distance, strand} pair per bridge.
+     */
+    public int[][] toArray() {
+        int[][] bridges = new int[size][2];
+
+        for (int i = 0; i < size; i++) {
+            bridges[i][0] = distances[i];
+            bridges[i][1] = strands[i];
+        }
+
+        return bridges;
+    }
+}
@@ -2,11 +2,9 @@ package spiderweb.bridges;
 
 import spiderweb.main.SpiderWeb;
 
-import java.awt.*;
-
 public class FixedBridge extends Bridge {
-    public FixedBridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
-        super(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+    public FixedBridge(int distance, int initialStrand, int finalStrand, String color) {
+        super(distance, initialStrand, finalStrand, color);
     }
 
     @Override
@@ -20,6 +18,6 @@ public class FixedBridge extends Bridge {
 
     @Override
     public FixedBridge copy() {
-        return new FixedBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+        return new FixedBridge(distance, initialStrand, finalStrand, color);
     }
 }
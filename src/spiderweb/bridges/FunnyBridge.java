@@ -8,8 +8,8 @@ import java.util.ArrayList;
 
 public class FunnyBridge extends Bridge {
 
-    public FunnyBridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
-        super(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+    public FunnyBridge(int distance, int initialStrand, int finalStrand, String color) {
+        super(distance, initialStrand, finalStrand, color);
     }
 
     @Override
@@ -39,6 +39,6 @@ public class FunnyBridge extends Bridge {
 
     @Override
     public Bridge copy() {
-        return new FunnyBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+        return new FunnyBridge(distance, initialStrand, finalStrand, color);
     }
 }
@@ -6,8 +6,8 @@ import java.awt.*;
 import java.util.ArrayList;
 
 public class MobileBridge extends Bridge {
-    public MobileBridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
-        super(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+    public MobileBridge(int distance, int initialStrand, int finalStrand, String color) {
+        super(distance, initialStrand, finalStrand, color);
     }
 
     @Override
@@ -34,6 +34,6 @@ public class MobileBridge extends Bridge {
 
     @Override
     public MobileBridge copy() {
-        return new MobileBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+        return new MobileBridge(distance, initialStrand, finalStrand, color);
     }
 }
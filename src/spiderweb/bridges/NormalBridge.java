@@ -2,11 +2,9 @@ package spiderweb.bridges;
 
 import spiderweb.main.SpiderWeb;
 
-import java.awt.*;
-
 public class NormalBridge extends Bridge {
-    public NormalBridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
-        super(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+    public NormalBridge(int distance, int initialStrand, int finalStrand, String color) {
+        super(distance, initialStrand, finalStrand, color);
     }
 
     @Override
@@ -20,7 +18,7 @@ public class NormalBridge extends Bridge {
 
     @Override
     public NormalBridge copy() {
-        return new NormalBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+        return new NormalBridge(distance, initialStrand, finalStrand, color);
     }
 
 
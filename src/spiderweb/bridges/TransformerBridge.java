@@ -2,11 +2,9 @@ package spiderweb.bridges;
 
 import spiderweb.main.SpiderWeb;
 
-import java.awt.*;
-
 public class TransformerBridge extends Bridge {
-    public TransformerBridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
-        super(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+    public TransformerBridge(int distance, int initialStrand, int finalStrand, String color) {
+        super(distance, initialStrand, finalStrand, color);
     }
 
     @Override
@@ -20,6 +18,6 @@ public class TransformerBridge extends Bridge {
 
     @Override
     public TransformerBridge copy() {
-        return new TransformerBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+        return new TransformerBridge(distance, initialStrand, finalStrand, color);
     }
 }
@@ -2,11 +2,9 @@ package spiderweb.bridges;
 
 import spiderweb.main.SpiderWeb;
 
-import java.awt.*;
-
 public class WeakBridge extends Bridge {
-    public WeakBridge(int distance, int initialStrand, int finalStrand, Point initialPoint, Point finalPoint, String color) {
-        super(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+    public WeakBridge(int distance, int initialStrand, int finalStrand, String color) {
+        super(distance, initialStrand, finalStrand, color);
     }
 
     @Override
@@ -21,6 +19,6 @@ public class WeakBridge extends Bridge {
 
     @Override
     public WeakBridge copy() {
-        return new WeakBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color);
+        return new WeakBridge(distance, initialStrand, finalStrand, color);
     }
 }
@@ -0,0 +1,494 @@
+package spiderweb.contest;
+
+import spiderweb.bridges.BridgeSet;
+import spiderweb.metrics.Metrics;
+import spiderweb.metrics.PlannerLevelEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Searches the bridges that must be added to a spider web so that the spider starting on a strand
+ * ends on the favorite strand. The candidates are the bridges next to the existing ones (one gap
+ * closer or farther, on the same strands or on the neighbour ones), the same moves the simulation
+ * of the contest has always tried.
+ * <p>
+ * The search is best-first: the answer of the solver for the current bridges is a lower bound of
+ * the bridges still needed, so the first plan found is one of the shortest. Each state is only the
+ * sorted bridges, and a state reached again by adding the same bridges in another order is skipped.
+ * A planner can run several searches at the same time, each thread evaluates states with its own buffers.
+ */
+public class BridgePlanner {
+
+    private static final int FORK_DEPTH = 2;
+    private static final ThreadLocal<Evaluator> EVALUATORS = ThreadLocal.withInitial(Evaluator::new);
+
+    private final int strandCount;
+    private final int radio;
+    private final int gap;
+
+    /**
+     * Constructs a planner for spider webs of the given size.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param radio       The radio of the spider web, every bridge must be closer than it.
+     * @param gap         The distance between a bridge and the candidates next to it.
+     */
+    public BridgePlanner(int strandCount, int radio, int gap) {
+        this.strandCount = strandCount;
+        this.radio = radio;
+        this.gap = gap;
+    }
+
+    /**
+     * Finds one of the shortest lists of bridges to add so that the spider starting on the initial
+     * strand ends on the favorite strand.
+     *
+     * @param bridges        The current bridges in the form {distance, strand}.
+     * @param initialStrand  The strand where the spider starts.
+     * @param favoriteStrand The strand where the spider must end.
+     * @param maxBridges     The maximum number of bridges that can be added.
+     * @return The bridges to add in the form {distance, strand}, or null if there is no plan with at most maxBridges bridges.
+     */
+    public int[][] plan(int[][] bridges, int initialStrand, int favoriteStrand, int maxBridges) {
+        Search search = new Search(initialStrand, favoriteStrand, maxBridges);
+        search.bestFirst(search.root(bridges));
+
+        return search.result();
+    }
+
+    /**
+     * Finds a list of bridges like plan, splitting the first levels of the search in tasks of the given
+     * pool. The first task that finds a plan stops the others; when maxBridges is the answer of the
+     * solver, every plan that can be found is one of the shortest.
+     *
+     * @param bridges        The current bridges in the form {distance, strand}.
+     * @param initialStrand  The strand where the spider starts.
+     * @param favoriteStrand The strand where the spider must end.
+     * @param maxBridges     The maximum number of bridges that can be added.
+     * @param pool           The pool where the search runs.
+     * @return The bridges to add in the form {distance, strand}, or null if there is no plan with at most maxBridges bridges.
+     */
+    public int[][] plan(int[][] bridges, int initialStrand, int favoriteStrand, int maxBridges, ForkJoinPool pool) {
+        Search search = new Search(initialStrand, favoriteStrand, maxBridges);
+        pool.invoke(new SearchTask(search, search.root(bridges)));
+
+        return search.result();
+    }
+
+    /**
+     * The state of one search, shared by all its tasks. The solution works as the cancellation token
+     * of the search: once it is set, every task stops.
+     */
+    private final class Search {
+        private final int initialStrand;
+        private final int favoriteStrand;
+        private final int maxBridges;
+        private final Set<State> reached;
+        private final AtomicReference<State> solution;
+
+        // Only kept while a flight recording wants the events of the planner
+        private final PlannerLevelEvent[] levelEvents;
+        private final LongAdder[] statesExpanded;
+        private final LongAdder[] expandNanos;
+
+        private Search(int initialStrand, int favoriteStrand, int maxBridges) {
+            this.initialStrand = initialStrand;
+            this.favoriteStrand = favoriteStrand;
+            this.maxBridges = maxBridges;
+            this.reached = ConcurrentHashMap.newKeySet();
+            this.solution = new AtomicReference<>();
+            this.levelEvents = PlannerLevelEvent.beginLevelsIfRecording(Math.max(0, maxBridges));
+            this.statesExpanded = levelEvents == null ? null : adders(levelEvents.length);
+            this.expandNanos = levelEvents == null ? null : adders(levelEvents.length);
+        }
+
+        private State root(int[][] bridges) {
+            long[] keys = new long[bridges.length];
+
+            for (int i = 0; i < bridges.length; i++) {
+                keys[i] = keyOf(bridges[i][0], bridges[i][1]);
+            }
+
+            Arrays.sort(keys);
+
+            State root = new State(keys, null, 0L, 0);
+            root.bound = EVALUATORS.get().remainingBridges(root, strandCount, initialStrand, favoriteStrand);
+            reached.add(root);
+
+            return root;
+        }
+
+        private boolean isCancelled() {
+            return solution.get() != null;
+        }
+
+        /**
+         * Checks if the state is a solution, the first one found wins.
+         */
+        private boolean solves(State state) {
+            if (!EVALUATORS.get().reaches(state, strandCount, initialStrand, favoriteStrand)) {
+                return false;
+            }
+
+            solution.compareAndSet(null, state);
+            return true;
+        }
+
+        /**
+         * Gets the children of the state that weren't reached before and can still end in a plan.
+         * The bridges of a state tell its depth, so a state reached twice can be skipped the second time.
+         */
+        private ArrayList<State> expand(State state) {
+            ArrayList<State> children = new ArrayList<>();
+            Evaluator evaluator = EVALUATORS.get();
+            long start = levelEvents == null ? 0 : System.nanoTime();
+
+            Metrics.contest().recordNodeExplored();
+
+            for (long candidate : candidates(state, favoriteStrand)) {
+                State child = new State(insert(state.keys, candidate), state, candidate, state.depth + 1);
+
+                if (!reached.add(child)) {
+                    continue;
+                }
+
+                child.bound = evaluator.remainingBridges(child, strandCount, initialStrand, favoriteStrand);
+
+                if (child.depth + child.bound <= maxBridges) {
+                    children.add(child);
+                }
+            }
+
+            if (levelEvents != null) {
+                int depth = Math.min(state.depth, levelEvents.length - 1);
+                statesExpanded[depth].increment();
+                expandNanos[depth].add(System.nanoTime() - start);
+            }
+
+            return children;
+        }
+
+        /**
+         * Searches from the state, expanding first the states with the smallest depth plus lower bound.
+         */
+        private void bestFirst(State start) {
+            PriorityQueue<State> open = new PriorityQueue<>();
+            long generated = 0;
+
+            start.order = generated++;
+            open.add(start);
+
+            while (!open.isEmpty() && !this.isCancelled()) {
+                State state = open.poll();
+
+                if (this.solves(state)) {
+                    return;
+                }
+
+                for (State child : this.expand(state)) {
+                    child.order = generated++;
+                    open.add(child);
+                }
+            }
+        }
+
+        private int[][] result() {
+            if (levelEvents != null) {
+                PlannerLevelEvent.commitLevels(levelEvents, sums(statesExpanded), sums(expandNanos));
+            }
+
+            State state = solution.get();
+            return state == null ? null : state.plan();
+        }
+    }
+
+    /**
+     * Splits the first levels of a search in one task per child, the deeper levels are searched best-first.
+     */
+    private final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final State state;
+
+        private SearchTask(Search search, State state) {
+            this.search = search;
+            this.state = state;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.isCancelled()) {
+                return;
+            }
+
+            if (state.depth >= FORK_DEPTH) {
+                search.bestFirst(state);
+                return;
+            }
+
+            if (search.solves(state)) {
+                return;
+            }
+
+            ArrayList<SearchTask> tasks = new ArrayList<>();
+
+            for (State child : search.expand(state)) {
+                tasks.add(new SearchTask(search, child));
+            }
+
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * The buffers used to evaluate states, one per thread and shared by all the planners.
+     */
+    private static final class Evaluator {
+        private final SolverWorkspace workspace = new SolverWorkspace();
+        private final BridgeSet bridgeSet = new BridgeSet();
+        private int[] answers = new int[0];
+
+        private boolean reaches(State state, int strandCount, int initialStrand, int favoriteStrand) {
+            this.fillBridgeSet(state);
+            return WalkIndex.of(strandCount, bridgeSet).walk(initialStrand) == favoriteStrand;
+        }
+
+        private int remainingBridges(State state, int strandCount, int initialStrand, int favoriteStrand) {
+            if (answers.length < strandCount) {
+                answers = new int[strandCount];
+            }
+
+            this.fillBridgeSet(state);
+            workspace.solve(strandCount, favoriteStrand, bridgeSet, answers);
+
+            return answers[initialStrand];
+        }
+
+        private void fillBridgeSet(State state) {
+            bridgeSet.clear();
+
+            for (long key : state.keys) {
+                bridgeSet.add(distanceOf(key), strandOf(key));
+            }
+        }
+    }
+
+    /**
+     * Gets the valid bridges next to the bridges of the state, without repetitions.
+     */
+    private long[] candidates(State state, int favoriteStrand) {
+        long[] keys = state.keys;
+        long[] candidates = new long[6 * keys.length + 1];
+        int count = 0;
+
+        boolean favoriteTouched = false;
+
+        for (long key : keys) {
+            int strand = strandOf(key);
+            favoriteTouched |= strand == favoriteStrand || this.next(strand) == favoriteStrand;
+        }
+
+        if (!favoriteTouched) {
+            candidates[count++] = keyOf(radio - 2 * gap, favoriteStrand);
+        }
+
+        for (long key : keys) {
+            int distance = distanceOf(key);
+            int strand = strandOf(key);
+
+            for (int index = 0; index < 6; index++) {
+                int candidateDistance = distance + (index % 2 == 0 ? -gap : +gap);
+                int candidateStrand;
+
+                if (index < 2) {
+                    candidateStrand = strand;
+                } else if (index < 4) {
+                    candidateStrand = this.previous(strand);
+                } else {
+                    candidateStrand = this.next(strand);
+                }
+
+                candidates[count++] = keyOf(candidateDistance, candidateStrand);
+            }
+        }
+
+        Arrays.sort(candidates, 0, count);
+
+        int valid = 0;
+
+        for (int i = 0; i < count; i++) {
+            if ((i > 0 && candidates[i] == candidates[i - 1]) || !this.canBuild(keys, candidates[i])) {
+                continue;
+            }
+
+            candidates[valid++] = candidates[i];
+        }
+
+        return Arrays.copyOf(candidates, valid);
+    }
+
+    /**
+     * Checks the rules of the spider web: the bridge must be inside the web and can't share a strand
+     * with another bridge at the same distance.
+     */
+    private boolean canBuild(long[] keys, long candidate) {
+        int distance = distanceOf(candidate);
+
+        if (distance < 1 || distance >= radio) {
+            return false;
+        }
+
+        int strand = strandOf(candidate);
+        int position = lowerBound(keys, keyOf(distance, 0));
+
+        for (int i = position; i < keys.length && distanceOf(keys[i]) == distance; i++) {
+            int other = strandOf(keys[i]);
+
+            if (other == strand || other == this.next(strand) || this.next(other) == strand || this.next(other) == this.next(strand)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int next(int strand) {
+        return strand == strandCount - 1 ? 0 : strand + 1;
+    }
+
+    private int previous(int strand) {
+        return strand == 0 ? strandCount - 1 : strand - 1;
+    }
+
+    private static LongAdder[] adders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+
+        return sums;
+    }
+
+    private static long[] insert(long[] keys, long key) {
+        int position = lowerBound(keys, key);
+        long[] result = new long[keys.length + 1];
+
+        System.arraycopy(keys, 0, result, 0, position);
+        result[position] = key;
+        System.arraycopy(keys, position, result, position + 1, keys.length - position);
+
+        return result;
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static long keyOf(int distance, int strand) {
+        return ((long) distance << 32) | (strand & 0xFFFFFFFFL);
+    }
+
+    private static int distanceOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int strandOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * The sorted bridges of a spider web and the bridge added to reach it from its parent.
+     */
+    private static final class State implements Comparable<State> {
+        private final long[] keys;
+        private final int hash;
+        private final State parent;
+        private final long added;
+        private final int depth;
+        private int bound;
+        private long order;
+
+        private State(long[] keys, State parent, long added, int depth) {
+            this.keys = keys;
+            this.hash = Arrays.hashCode(keys);
+            this.parent = parent;
+            this.added = added;
+            this.depth = depth;
+        }
+
+        private int[][] plan() {
+            int[][] plan = new int[depth][];
+            State state = this;
+
+            for (int i = depth - 1; i >= 0; i--) {
+                plan[i] = new int[]{distanceOf(state.added), strandOf(state.added)};
+                state = state.parent;
+            }
+
+            return plan;
+        }
+
+        @Override
+        public int compareTo(State other) {
+            int comparison = Integer.compare(depth + bound, other.depth + other.bound);
+
+            if (comparison == 0) {
+                comparison = Integer.compare(other.depth, depth);
+            }
+
+            return comparison != 0 ? comparison : Long.compare(order, other.order);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof State)) {
+                return false;
+            }
+
+            State other = (State) obj;
+            return hash == other.hash && Arrays.equals(keys, other.keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
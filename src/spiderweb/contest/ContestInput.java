@@ -0,0 +1,32 @@
+package spiderweb.contest;
+
+import spiderweb.bridges.BridgeSet;
+
+/**
+ * The contest input, a header 'n s' with the number of strands and the favorite strand
+ * followed by one 'd t' line per bridge.
+ */
+public class ContestInput {
+
+    private final int strandCount;
+    private final int favoriteStrand;
+    private final BridgeSet bridges;
+
+    public ContestInput(int strandCount, int favoriteStrand, BridgeSet bridges) {
+        this.strandCount = strandCount;
+        this.favoriteStrand = favoriteStrand;
+        this.bridges = bridges;
+    }
+
+    public int getStrandCount() {
+        return strandCount;
+    }
+
+    public int getFavoriteStrand() {
+        return favoriteStrand;
+    }
+
+    public BridgeSet getBridges() {
+        return bridges;
+    }
+}
@@ -0,0 +1,120 @@
+package spiderweb.contest;
+
+import spiderweb.bridges.BridgeSet;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the contest input ('n s' followed by 'd t' lines) from a file mapped in memory.
+ * The numbers are parsed straight from the mapped bytes, the file is mapped by windows so
+ * files bigger than 2 GB can be read, and a number can be split between two windows.
+ */
+public class ContestInputReader {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int BYTES_PER_BRIDGE_GUESS = 16;
+    // The input has no count of bridges, so a big file starts with room for this many and grows as it is read
+    private static final int MAX_INITIAL_CAPACITY = 1 << 20;
+
+    private final BridgeSet bridges;
+    private long tokens;
+    private long value;
+    private boolean negative;
+    private boolean inNumber;
+    private int strandCount;
+    private int favoriteStrand;
+    private int distance;
+
+    private ContestInputReader(int capacity) {
+        this.bridges = new BridgeSet(capacity);
+    }
+
+    /**
+     * Reads the contest input from the given file.
+     *
+     * @param path The path of the file.
+     * @return The contest input.
+     * @throws IOException If the file can't be read or it isn't a valid input.
+     */
+    public static ContestInput read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ContestInputReader reader = new ContestInputReader((int) Math.min(MAX_INITIAL_CAPACITY, Math.max(16, fileSize / BYTES_PER_BRIDGE_GUESS)));
+
+            for (long offset = 0; offset < fileSize; offset += WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, fileSize - offset));
+                reader.parse(window);
+            }
+
+            return reader.finish();
+        }
+    }
+
+    private void parse(MappedByteBuffer window) throws IOException {
+        int limit = window.limit();
+
+        for (int i = 0; i < limit; i++) {
+            byte current = window.get(i);
+
+            if (current >= '0' && current <= '9') {
+                value = value * 10 + (current - '0');
+                inNumber = true;
+
+                if (value > Integer.MAX_VALUE) {
+                    throw new IOException("Number out of range at token " + (tokens + 1));
+                }
+            } else if (current == '-' && !inNumber && !negative) {
+                negative = true;
+            } else if (current == ' ' || current == '\n' || current == '\r' || current == '\t') {
+                this.endToken();
+            } else {
+                throw new IOException("Unexpected character '" + (char) current + "' at token " + (tokens + 1));
+            }
+        }
+    }
+
+    private void endToken() throws IOException {
+        if (!inNumber) {
+            if (negative) {
+                throw new IOException("Invalid number at token " + (tokens + 1));
+            }
+
+            return;
+        }
+
+        int number = (int) (negative ? -value : value);
+
+        if (tokens == 0) {
+            strandCount = number;
+        } else if (tokens == 1) {
+            favoriteStrand = number;
+        } else if ((tokens & 1) == 0) {
+            distance = number;
+        } else {
+            bridges.add(distance, number);
+        }
+
+        tokens++;
+        value = 0;
+        negative = false;
+        inNumber = false;
+    }
+
+    private ContestInput finish() throws IOException {
+        this.endToken();
+
+        if (tokens < 2) {
+            throw new IOException("The input must start with 'n s'");
+        }
+
+        if ((tokens & 1) == 1) {
+            throw new IOException("Every bridge must be in the form 'd t'");
+        }
+
+        return new ContestInput(strandCount, favoriteStrand, bridges);
+    }
+}
@@ -0,0 +1,178 @@
+package spiderweb.contest;
+
+import java.util.Arrays;
+
+/**
+ * Bit set with a summary level for every 64 words, so the next or previous set bit is found
+ * in O(log64 n) instead of scanning the words in between.
+ */
+public class HierarchicalBitSet {
+
+    private static final int WORD_BITS = 6;
+    private static final int WORD_MASK = 63;
+
+    private long[][] levels;
+    private int size;
+
+    /**
+     * Constructs an empty bit set with room for the given number of bits.
+     *
+     * @param capacity The number of bits the set can hold without growing.
+     */
+    public HierarchicalBitSet(int capacity) {
+        this.levels = allocate(capacity);
+        this.size = 0;
+    }
+
+    /**
+     * Clears the set and resizes it to the given number of bits, reusing the current words when possible.
+     *
+     * @param size The number of bits of the set.
+     */
+    public void reset(int size) {
+        if (size > capacity()) {
+            this.levels = allocate(size);
+        } else {
+            int bits = Math.max(this.size, 1);
+
+            for (long[] level : levels) {
+                Arrays.fill(level, 0, Math.min(level.length, wordsFor(bits)), 0L);
+                bits = wordsFor(bits);
+            }
+        }
+
+        this.size = size;
+    }
+
+    public void set(int index) {
+        for (long[] level : levels) {
+            int wordIndex = index >>> WORD_BITS;
+            boolean wasEmpty = level[wordIndex] == 0;
+
+            level[wordIndex] |= 1L << (index & WORD_MASK);
+
+            if (!wasEmpty) {
+                return;
+            }
+
+            index = wordIndex;
+        }
+    }
+
+    public void clear(int index) {
+        for (long[] level : levels) {
+            int wordIndex = index >>> WORD_BITS;
+
+            level[wordIndex] &= ~(1L << (index & WORD_MASK));
+
+            if (level[wordIndex] != 0) {
+                return;
+            }
+
+            index = wordIndex;
+        }
+    }
+
+    public boolean get(int index) {
+        return (levels[0][index >>> WORD_BITS] & (1L << (index & WORD_MASK))) != 0;
+    }
+
+    /**
+     * Finds the first set bit at or after the given index.
+     *
+     * @param from The index where the search starts.
+     * @return The index of the set bit, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        int index = from;
+
+        for (int level = 0; level < levels.length; level++) {
+            int wordIndex = index >>> WORD_BITS;
+
+            if (wordIndex >= levels[level].length) {
+                return -1;
+            }
+
+            long word = levels[level][wordIndex] & (-1L << (index & WORD_MASK));
+
+            if (word != 0) {
+                index = (wordIndex << WORD_BITS) + Long.numberOfTrailingZeros(word);
+
+                while (level > 0) {
+                    level--;
+                    index = (index << WORD_BITS) + Long.numberOfTrailingZeros(levels[level][index]);
+                }
+
+                return index;
+            }
+
+            index = wordIndex + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds the last set bit at or before the given index.
+     *
+     * @param from The index where the search starts.
+     * @return The index of the set bit, or -1 if there is none.
+     */
+    public int previousSetBit(int from) {
+        int index = from;
+
+        for (int level = 0; level < levels.length; level++) {
+            if (index < 0) {
+                return -1;
+            }
+
+            int wordIndex = index >>> WORD_BITS;
+            long word = levels[level][wordIndex] & (-1L >>> (WORD_MASK - (index & WORD_MASK)));
+
+            if (word != 0) {
+                index = (wordIndex << WORD_BITS) + WORD_MASK - Long.numberOfLeadingZeros(word);
+
+                while (level > 0) {
+                    level--;
+                    index = (index << WORD_BITS) + WORD_MASK - Long.numberOfLeadingZeros(levels[level][index]);
+                }
+
+                return index;
+            }
+
+            index = wordIndex - 1;
+        }
+
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int capacity() {
+        return levels[0].length << WORD_BITS;
+    }
+
+    private static int wordsFor(int bits) {
+        return Math.max(1, (bits + WORD_MASK) >>> WORD_BITS);
+    }
+
+    private static long[][] allocate(int capacity) {
+        int depth = 1;
+
+        for (int words = wordsFor(capacity); words > 1; words = wordsFor(words)) {
+            depth++;
+        }
+
+        long[][] levels = new long[depth][];
+        int bits = capacity;
+
+        for (int level = 0; level < depth; level++) {
+            levels[level] = new long[wordsFor(bits)];
+            bits = wordsFor(bits);
+        }
+
+        return levels;
+    }
+}
@@ -0,0 +1,1263 @@
+package spiderweb.contest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps the answers of the spider walk problem up to date while bridges are added and removed.
+ * <p>
+ * The bridges are kept in processing order (descending distance) and split in blocks of about twice the
+ * square root of their number, the bridges at the same distance are crossed at once so they always share
+ * a block. The key strands of a block are the strands its bridges join and their
+ * neighbours. A strand that is not a key strand keeps its answer through the block, or takes a smaller
+ * one from the closest key strands, so a block is summarised by the answers of its key strands before
+ * and after it. The answer of a strand after a block is found by walking back through the blocks until
+ * one that has it as a key strand, or until a block that keeps the answers of all the strands before it.
+ * Those blocks are spaced a few blocks apart, so the walk back is short.
+ * <p>
+ * A change rebuilds the block of the bridge, then follows the strands whose answer changed through the
+ * next blocks. Only the blocks that read one of them are swept again, and the work stops as soon as no
+ * answer differs. A query walks back through the blocks, so neither of them replays the whole sweep.
+ */
+public class IncrementalSolver {
+
+    private static final int MIN_BLOCK_SIZE = 64;
+    private static final int CHECKPOINT_SPACING = 16;
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 4;
+
+    private final SolverWorkspace workspace;
+    private final ArrayList<Block> blocks;
+
+    private int strandCount;
+    private int[] favoriteStrands;
+    private int bridgeCount;
+    private int blockSize;
+    private int builtBridgeCount;
+    private boolean built;
+
+    /**
+     * Constructs a solver without bridges.
+     *
+     * @param strandCount     The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands of the spider.
+     */
+    public IncrementalSolver(int strandCount, int[] favoriteStrands) {
+        this.workspace = new SolverWorkspace();
+        this.blocks = new ArrayList<>();
+
+        this.strandCount = strandCount;
+        this.favoriteStrands = distinctSorted(favoriteStrands);
+        this.blockSize = MIN_BLOCK_SIZE;
+        this.built = false;
+    }
+
+    /**
+     * Adds a bridge, only its block and the strands whose answer it changes are computed again.
+     *
+     * @param distance The distance of the bridge.
+     * @param strand   The strand where the bridge starts.
+     * @return True if the bridge was added, false if it already existed.
+     */
+    public boolean addBridge(int distance, int strand) {
+        long key = keyOf(distance, strand);
+
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+
+        int index = this.blockOf(key);
+        Block block = blocks.get(index);
+        KeyStrands previous = block.strands;
+
+        if (!block.insert(key)) {
+            return false;
+        }
+
+        bridgeCount++;
+        this.changed(index, previous);
+
+        if (block.size > 2 * blockSize) {
+            this.split(index);
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes a bridge, only its block and the strands whose answer it changes are computed again.
+     *
+     * @param distance The distance of the bridge.
+     * @param strand   The strand where the bridge starts.
+     * @return True if the bridge was removed, false if it didn't exist.
+     */
+    public boolean removeBridge(int distance, int strand) {
+        long key = keyOf(distance, strand);
+
+        if (blocks.isEmpty()) {
+            return false;
+        }
+
+        int index = this.blockOf(key);
+        Block block = blocks.get(index);
+        KeyStrands previous = block.strands;
+
+        if (!block.remove(key)) {
+            return false;
+        }
+
+        bridgeCount--;
+        this.changed(index, previous);
+
+        if (block.size == 0) {
+            // A block without bridges doesn't change any answer, the next one starts from the same answers
+            blocks.remove(index);
+
+            if (index < blocks.size() && blocks.get(index).checkpoint == null) {
+                blocks.get(index).checkpoint = block.checkpoint;
+            }
+        } else if (block.size < blockSize / 2 && blocks.size() > 1) {
+            this.merge(index == blocks.size() - 1 ? index - 1 : index);
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves a bridge to another distance on the same strand.
+     *
+     * @param distance    The current distance of the bridge.
+     * @param strand      The strand where the bridge starts.
+     * @param newDistance The new distance of the bridge.
+     * @return True if the bridge was moved, false if it didn't exist.
+     */
+    public boolean relocateBridge(int distance, int strand, int newDistance) {
+        if (!this.removeBridge(distance, strand)) {
+            return false;
+        }
+
+        this.addBridge(newDistance, strand);
+        return true;
+    }
+
+    /**
+     * Changes the favorite strands, the blocks are swept again on the next query.
+     *
+     * @param favoriteStrands The new favorite strands.
+     */
+    public void setFavoriteStrands(int[] favoriteStrands) {
+        this.favoriteStrands = distinctSorted(favoriteStrands);
+        this.built = false;
+    }
+
+    /**
+     * Changes the number of strands, the blocks are swept again on the next query. The bridges changed
+     * along with the strands should be given after calling this, so they are not followed one by one.
+     *
+     * @param strandCount The new number of strands.
+     */
+    public void setStrandCount(int strandCount) {
+        this.strandCount = strandCount;
+        this.built = false;
+    }
+
+    /**
+     * Gets the minimum number of bridges needed to reach a favorite strand from the given strand.
+     *
+     * @param strand The strand where the spider starts.
+     * @return The answer of the strand, or -1 if there are no favorite strands.
+     */
+    public int getAnswer(int strand) {
+        if (favoriteStrands.length == 0) {
+            return -1;
+        }
+
+        this.ensureBuilt();
+        return this.valueBefore(blocks.size(), strand);
+    }
+
+    /**
+     * Gets the answers of all the strands, in a single pass over the strands and the key strands.
+     *
+     * @return A new array with the answer of each strand, filled with -1 if there are no favorite strands.
+     */
+    public int[] getAnswers() {
+        int[] answers = new int[strandCount];
+
+        if (favoriteStrands.length == 0) {
+            Arrays.fill(answers, -1);
+            return answers;
+        }
+
+        this.ensureBuilt();
+
+        int blockCount = blocks.size();
+        int[] lastBlock = new int[strandCount];
+        int[] apexStarts = new int[strandCount + 1];
+
+        Arrays.fill(lastBlock, -1);
+
+        for (int index = blockCount - 1; index >= 0; index--) {
+            KeyStrands strands = blocks.get(index).strands;
+
+            for (int i = 0; i < strands.size; i++) {
+                int strand = strands.positions[i];
+                apexStarts[strand + 1]++;
+
+                if (lastBlock[strand] < 0) {
+                    lastBlock[strand] = index;
+                    answers[strand] = strands.after[i];
+                }
+            }
+        }
+
+        for (int strand = 0; strand < strandCount; strand++) {
+            apexStarts[strand + 1] += apexStarts[strand];
+
+            if (lastBlock[strand] < 0) {
+                answers[strand] = this.distanceToFavorite(strand);
+            }
+        }
+
+        // The key strands grouped by strand, with the block they belong to and their answer after it
+        int[] apexBlocks = new int[apexStarts[strandCount]];
+        int[] apexValues = new int[apexStarts[strandCount]];
+        int[] next = Arrays.copyOf(apexStarts, strandCount);
+
+        for (int index = 0; index < blockCount; index++) {
+            KeyStrands strands = blocks.get(index).strands;
+
+            for (int i = 0; i < strands.size; i++) {
+                int position = next[strands.positions[i]]++;
+                apexBlocks[position] = index;
+                apexValues[position] = strands.after[i];
+            }
+        }
+
+        // A strand takes the answers of the key strands of the blocks after the last one that touches it,
+        // walking the ring twice clockwise and twice counterclockwise covers every distance between them
+        int[] tree = new int[blockCount + 1];
+        Arrays.fill(tree, UNREACHABLE);
+
+        for (int step = 0; step < 2 * strandCount; step++) {
+            int strand = step % strandCount;
+
+            for (int i = apexStarts[strand]; i < apexStarts[strand + 1]; i++) {
+                lowerFrom(tree, blockCount - apexBlocks[i], apexValues[i] - step);
+            }
+
+            answers[strand] = Math.min(answers[strand], minimumFrom(tree, blockCount - lastBlock[strand]) + step);
+        }
+
+        Arrays.fill(tree, UNREACHABLE);
+
+        for (int step = 2 * strandCount - 1; step >= 0; step--) {
+            int strand = step % strandCount;
+
+            for (int i = apexStarts[strand]; i < apexStarts[strand + 1]; i++) {
+                lowerFrom(tree, blockCount - apexBlocks[i], apexValues[i] + step);
+            }
+
+            answers[strand] = Math.min(answers[strand], minimumFrom(tree, blockCount - lastBlock[strand]) - step);
+        }
+
+        return answers;
+    }
+
+    public int getBridgeCount() {
+        return bridgeCount;
+    }
+
+    /**
+     * Finds the block where the key is or would be inserted, the one with the other bridges at its distance.
+     */
+    private int blockOf(long key) {
+        long first = key & ~0xFFFFFFFFL;
+        int low = 0;
+        int high = blocks.size() - 1;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (blocks.get(middle).lastKey() < first) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Sweeps every block again, with blocks of about twice the square root of the number of bridges.
+     */
+    private void ensureBuilt() {
+        if (built && bridgeCount <= 4 * Math.max(builtBridgeCount, blockSize) && 4 * bridgeCount >= builtBridgeCount) {
+            return;
+        }
+
+        long[] keys = new long[bridgeCount];
+        int size = 0;
+
+        for (Block block : blocks) {
+            System.arraycopy(block.keys, 0, keys, size, block.size);
+            size += block.size;
+        }
+
+        blockSize = Math.max(MIN_BLOCK_SIZE, 2 * (int) Math.sqrt(bridgeCount));
+        blocks.clear();
+
+        for (int start = 0, end; start < size; start = end) {
+            end = Math.min(size, start + blockSize);
+
+            while (end < size && sameDistance(keys[end], keys[end - 1])) {
+                end++;
+            }
+
+            blocks.add(new Block(Arrays.copyOfRange(keys, start, end)));
+        }
+
+        workspace.begin(strandCount, favoriteStrands);
+        int[] tie = new int[0];
+
+        for (int index = 0; index < blocks.size(); index++) {
+            Block block = blocks.get(index);
+            KeyStrands strands = block.index(strandCount);
+
+            if (index > 0 && index % CHECKPOINT_SPACING == 0) {
+                block.checkpoint = new int[strandCount];
+                workspace.answers(block.checkpoint);
+            }
+
+            for (int i = 0; i < strands.size; i++) {
+                strands.before[i] = workspace.answer(strands.positions[i]);
+            }
+
+            for (int start = 0, end; start < block.size; start = end) {
+                end = block.tieEnd(start);
+
+                if (end - start == 1) {
+                    workspace.process(strandOf(block.keys[start]));
+                    continue;
+                }
+
+                if (tie.length < end - start) {
+                    tie = new int[end - start];
+                }
+
+                block.tieStrands(start, end, tie);
+                workspace.process(tie, 0, end - start);
+            }
+
+            for (int i = 0; i < strands.size; i++) {
+                strands.after[i] = workspace.answer(strands.positions[i]);
+            }
+
+            block.strands = strands;
+        }
+
+        builtBridgeCount = bridgeCount;
+        built = true;
+    }
+
+    /**
+     * Sweeps again the block whose bridges changed, then follows the answers that changed through the
+     * next blocks.
+     *
+     * @param index    The index of the block.
+     * @param previous The key strands of the block before the change.
+     */
+    private void changed(int index, KeyStrands previous) {
+        if (!built) {
+            return;
+        }
+
+        Block block = blocks.get(index);
+        KeyStrands current = block.index(strandCount);
+
+        for (int i = 0; i < current.size; i++) {
+            int strand = current.positions[i];
+            int known = previous.indexOf(strand);
+
+            // The answers before the block didn't change, only the new key strands need to be looked up
+            current.before[i] = known >= 0 ? previous.before[known] : this.valueBefore(index, strand);
+        }
+
+        block.sweep(current, strandCount);
+        block.strands = current;
+
+        Changes changes = this.follow(index, previous, current, Changes.NONE);
+
+        for (int next = index + 1; next < blocks.size() && changes.size > 0; next++) {
+            Block nextBlock = blocks.get(next);
+            KeyStrands strands = nextBlock.strands;
+            KeyStrands updated = null;
+
+            if (nextBlock.checkpoint != null) {
+                for (int i = 0; i < changes.size; i++) {
+                    nextBlock.checkpoint[changes.strands[i]] = changes.newValues[i];
+                }
+            }
+
+            int known = 0;
+
+            for (int i = 0; i < changes.size; i++) {
+                while (known < strands.size && strands.positions[known] < changes.strands[i]) {
+                    known++;
+                }
+
+                if (known < strands.size && strands.positions[known] == changes.strands[i]) {
+                    if (updated == null) {
+                        updated = strands.withSamePositions();
+                    }
+
+                    updated.before[known] = changes.newValues[i];
+                }
+            }
+
+            if (updated == null) {
+                changes = changes.through(strands, strandCount);
+            } else {
+                nextBlock.sweep(updated, strandCount);
+                nextBlock.strands = updated;
+                changes = this.follow(next, strands, updated, changes);
+            }
+        }
+    }
+
+    /**
+     * Finds the strands whose answer after a block differs between two versions of its key strands.
+     * The key strands and the strands that already differed before the block are compared directly.
+     * Between two key strands an answer can only change where one of the closest key strands changed
+     * and its answer, plus the distance to it, is smaller than the answer before the block. That is a
+     * run next to the key strand, so it is walked from both ends and the walk stops at the first strand
+     * that keeps its answer.
+     *
+     * @param index    The index of the block.
+     * @param previous The key strands of the block before the change.
+     * @param current  The key strands of the block after the change.
+     * @param changes  The strands whose answer before the block changed.
+     * @return The strands whose answer after the block changed.
+     */
+    private Changes follow(int index, KeyStrands previous, KeyStrands current, Changes changes) {
+        Changes result = new Changes();
+        int[] merged = KeyStrands.union(previous, current);
+        int count = merged.length;
+
+        // The closest key strand of each version at or before each merged strand, and if it is the same one
+        int[] previousApexes = new int[count];
+        int[] currentApexes = new int[count];
+        boolean[] kept = new boolean[count];
+        int inPrevious = 0;
+        int inCurrent = 0;
+        int changed = 0;
+
+        for (int i = 0; i < count; i++) {
+            int strand = merged[i];
+            boolean isPrevious = inPrevious < previous.size && previous.positions[inPrevious] == strand;
+            boolean isCurrent = inCurrent < current.size && current.positions[inCurrent] == strand;
+
+            while (changed < changes.size && changes.strands[changed] < strand) {
+                changed++;
+            }
+
+            int oldBefore;
+            int newBefore;
+
+            if (changed < changes.size && changes.strands[changed] == strand) {
+                oldBefore = changes.oldValues[changed];
+                newBefore = changes.newValues[changed];
+            } else {
+                oldBefore = newBefore = isCurrent ? current.before[inCurrent] : previous.before[inPrevious];
+            }
+
+            int oldAfter = isPrevious ? previous.after[inPrevious] : Math.min(oldBefore, previous.coneAt(inPrevious, strand, strandCount));
+            int newAfter = isCurrent ? current.after[inCurrent] : Math.min(newBefore, current.coneAt(inCurrent, strand, strandCount));
+
+            if (oldAfter != newAfter) {
+                result.add(strand, oldAfter, newAfter);
+            }
+
+            kept[i] = isPrevious && isCurrent && oldAfter == newAfter;
+            previousApexes[i] = previous.wrap(isPrevious ? inPrevious : inPrevious - 1);
+            currentApexes[i] = current.wrap(isCurrent ? inCurrent : inCurrent - 1);
+
+            if (isPrevious) {
+                inPrevious++;
+            }
+
+            if (isCurrent) {
+                inCurrent++;
+            }
+        }
+
+        int inMerged = 0;
+        inPrevious = 0;
+        inCurrent = 0;
+
+        for (int i = 0; i < changes.size; i++) {
+            int strand = changes.strands[i];
+
+            while (inMerged < count && merged[inMerged] < strand) {
+                inMerged++;
+            }
+
+            if (inMerged < count && merged[inMerged] == strand) {
+                continue;
+            }
+
+            while (inPrevious < previous.size && previous.positions[inPrevious] < strand) {
+                inPrevious++;
+            }
+
+            while (inCurrent < current.size && current.positions[inCurrent] < strand) {
+                inCurrent++;
+            }
+
+            int oldAfter = Math.min(changes.oldValues[i], previous.coneAt(inPrevious, strand, strandCount));
+            int newAfter = Math.min(changes.newValues[i], current.coneAt(inCurrent, strand, strandCount));
+
+            if (oldAfter != newAfter) {
+                result.add(strand, oldAfter, newAfter);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            int left = merged[i];
+            int length = Math.floorMod(merged[next] - left - 1, strandCount);
+
+            if (length == 0 || (kept[i] && kept[next])) {
+                continue;
+            }
+
+            // No key strand of either version is inside the gap, so its closest ones are the same for all of it
+            int previousLeft = previousApexes[i];
+            int currentLeft = currentApexes[i];
+            int previousRight = previous.wrap(previousLeft + 1);
+            int currentRight = current.wrap(currentLeft + 1);
+            int walked = 0;
+
+            while (!kept[i] && walked < length) {
+                int strand = (left + walked + 1) % strandCount;
+                int reach = Math.min(previous.forwardCone(previousLeft, strand, strandCount), current.forwardCone(currentLeft, strand, strandCount));
+
+                if (!this.walk(index, changes, result, strand, reach,
+                        Math.min(previous.coneFrom(previousLeft, strand, strandCount), previous.coneFrom(previousRight, strand, strandCount)),
+                        Math.min(current.coneFrom(currentLeft, strand, strandCount), current.coneFrom(currentRight, strand, strandCount)))) {
+                    break;
+                }
+
+                walked++;
+            }
+
+            for (int offset = length; !kept[next] && offset > walked; offset--) {
+                int strand = (left + offset) % strandCount;
+                int reach = Math.min(previous.backwardCone(previousRight, strand, strandCount), current.backwardCone(currentRight, strand, strandCount));
+
+                if (!this.walk(index, changes, result, strand, reach,
+                        Math.min(previous.coneFrom(previousLeft, strand, strandCount), previous.coneFrom(previousRight, strand, strandCount)),
+                        Math.min(current.coneFrom(currentLeft, strand, strandCount), current.coneFrom(currentRight, strand, strandCount)))) {
+                    break;
+                }
+            }
+        }
+
+        result.sort();
+        return result;
+    }
+
+    /**
+     * Visits a strand between two key strands while walking away from one of them.
+     *
+     * @param reach   The smallest answer the strand takes from the key strand where the walk started.
+     * @param oldCone The smallest answer the strand takes from the key strands before the change.
+     * @param newCone The smallest answer the strand takes from the key strands after the change.
+     * @return False if the key strand doesn't reach the strand, so the walk stops.
+     */
+    private boolean walk(int index, Changes changes, Changes result, int strand, int reach, int oldCone, int newCone) {
+        int changed = changes.indexOf(strand);
+        int before = changed >= 0 ? changes.newValues[changed] : this.valueBefore(index, strand);
+
+        if (reach >= before) {
+            return false;
+        }
+
+        if (changed < 0 && Math.min(before, oldCone) != Math.min(before, newCone)) {
+            result.add(strand, Math.min(before, oldCone), Math.min(before, newCone));
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the answer of a strand before the given block, walking back until a block that has it as a
+     * key strand and taking the smaller answers of the key strands of the blocks in between.
+     */
+    private int valueBefore(int index, int strand) {
+        int value = UNREACHABLE;
+
+        for (int i = index - 1; i >= 0 && value > 0; i--) {
+            KeyStrands strands = blocks.get(i).strands;
+            int position = Arrays.binarySearch(strands.positions, 0, strands.size, strand);
+
+            if (position >= 0) {
+                return Math.min(value, strands.after[position]);
+            }
+
+            value = Math.min(value, strands.coneAt(-position - 1, strand, strandCount));
+
+            if (blocks.get(i).checkpoint != null) {
+                return Math.min(value, blocks.get(i).checkpoint[strand]);
+            }
+        }
+
+        return Math.min(value, this.distanceToFavorite(strand));
+    }
+
+    /**
+     * Splits a block in two halves, the answers after it don't change.
+     */
+    private void split(int index) {
+        Block block = blocks.get(index);
+        int half = block.splitPoint();
+
+        if (half < 0) {
+            // All the bridges of the block are at the same distance, they stay together
+            return;
+        }
+
+        Block first = new Block(Arrays.copyOfRange(block.keys, 0, half));
+        Block second = new Block(Arrays.copyOfRange(block.keys, half, block.size));
+
+        if (built) {
+            // The key strands of each half are key strands of the whole block
+            KeyStrands whole = block.strands;
+            KeyStrands firstStrands = first.index(strandCount);
+
+            for (int i = 0; i < firstStrands.size; i++) {
+                firstStrands.before[i] = whole.before[whole.indexOf(firstStrands.positions[i])];
+            }
+
+            first.sweep(firstStrands, strandCount);
+            first.strands = firstStrands;
+            first.checkpoint = block.checkpoint;
+
+            KeyStrands secondStrands = second.index(strandCount);
+
+            for (int i = 0; i < secondStrands.size; i++) {
+                int strand = secondStrands.positions[i];
+                int known = firstStrands.indexOf(strand);
+
+                secondStrands.before[i] = known >= 0
+                        ? firstStrands.after[known]
+                        : Math.min(whole.before[whole.indexOf(strand)], firstStrands.cone(strand, strandCount));
+            }
+
+            second.sweep(secondStrands, strandCount);
+            second.strands = secondStrands;
+        }
+
+        blocks.set(index, first);
+        blocks.add(index + 1, second);
+    }
+
+    /**
+     * Joins a block with the next one, the answers after them don't change.
+     */
+    private void merge(int index) {
+        Block first = blocks.get(index);
+        Block second = blocks.remove(index + 1);
+        long[] keys = Arrays.copyOf(first.keys, first.size + second.size);
+
+        System.arraycopy(second.keys, 0, keys, first.size, second.size);
+
+        Block joined = new Block(keys);
+
+        if (built) {
+            KeyStrands strands = joined.index(strandCount);
+
+            for (int i = 0; i < strands.size; i++) {
+                int known = first.strands.indexOf(strands.positions[i]);
+                strands.before[i] = known >= 0 ? first.strands.before[known] : this.valueBefore(index, strands.positions[i]);
+            }
+
+            joined.sweep(strands, strandCount);
+            joined.strands = strands;
+            joined.checkpoint = first.checkpoint;
+        }
+
+        blocks.set(index, joined);
+
+        if (joined.size > 2 * blockSize) {
+            this.split(index);
+        }
+    }
+
+    /**
+     * Gets the circular distance from the strand to the closest favorite strand.
+     */
+    private int distanceToFavorite(int strand) {
+        int position = Arrays.binarySearch(favoriteStrands, strand);
+
+        if (position >= 0) {
+            return 0;
+        }
+
+        int next = favoriteStrands[(-position - 1) % favoriteStrands.length];
+        int previous = favoriteStrands[Math.floorMod(-position - 2, favoriteStrands.length)];
+
+        return Math.min(circularDistance(strand, next, strandCount), circularDistance(strand, previous, strandCount));
+    }
+
+    private static int[] distinctSorted(int[] strands) {
+        return Arrays.stream(strands).distinct().sorted().toArray();
+    }
+
+    private static int circularDistance(int first, int second, int strandCount) {
+        int distance = Math.abs(first - second);
+        return Math.min(distance, strandCount - distance);
+    }
+
+    /**
+     * Lowers the value of a position of a Fenwick tree of prefix minimums.
+     */
+    private static void lowerFrom(int[] tree, int position, int value) {
+        for (int i = position; i < tree.length; i += i & -i) {
+            tree[i] = Math.min(tree[i], value);
+        }
+    }
+
+    /**
+     * Gets the minimum of the positions up to the given one, inclusive, of a Fenwick tree of prefix minimums.
+     */
+    private static int minimumFrom(int[] tree, int position) {
+        int value = UNREACHABLE;
+
+        for (int i = Math.min(position, tree.length - 1); i > 0; i -= i & -i) {
+            value = Math.min(value, tree[i]);
+        }
+
+        return value;
+    }
+
+    /**
+     * Packs a bridge so that the natural order of the keys is the processing order of the sweep.
+     */
+    private static long keyOf(int distance, int strand) {
+        return ((long) (Integer.MAX_VALUE - distance) << 32) | strand;
+    }
+
+    private static int strandOf(long key) {
+        return (int) key;
+    }
+
+    private static boolean sameDistance(long first, long second) {
+        return first >>> 32 == second >>> 32;
+    }
+
+    /**
+     * A run of bridges in processing order, kept as a sorted array of keys. Some blocks also keep the
+     * answers of all the strands before them.
+     */
+    private static final class Block {
+        private long[] keys;
+        private int size;
+        private KeyStrands strands;
+        private int[] checkpoint;
+
+        private Block() {
+            this(new long[MIN_BLOCK_SIZE]);
+            this.size = 0;
+        }
+
+        private Block(long[] keys) {
+            this.keys = keys;
+            this.size = keys.length;
+            this.strands = KeyStrands.EMPTY;
+        }
+
+        private long lastKey() {
+            return size == 0 ? Long.MAX_VALUE : keys[size - 1];
+        }
+
+        private boolean insert(long key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+
+            if (position >= 0) {
+                return false;
+            }
+
+            position = -position - 1;
+
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(MIN_BLOCK_SIZE, size << 1));
+            }
+
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            keys[position] = key;
+            size++;
+
+            return true;
+        }
+
+        private boolean remove(long key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+
+            if (position < 0) {
+                return false;
+            }
+
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            size--;
+
+            return true;
+        }
+
+        /**
+         * Gets the end, exclusive, of the run of bridges at the same distance as the one at the start.
+         */
+        private int tieEnd(int start) {
+            int end = start + 1;
+
+            while (end < size && sameDistance(keys[end], keys[start])) {
+                end++;
+            }
+
+            return end;
+        }
+
+        /**
+         * Copies the strands of the bridges from start to end, exclusive, in ascending order.
+         */
+        private void tieStrands(int start, int end, int[] strands) {
+            for (int i = start; i < end; i++) {
+                strands[i - start] = strandOf(keys[i]);
+            }
+        }
+
+        /**
+         * Finds the position closest to the middle where the distance changes, or -1 if all the bridges
+         * are at the same distance.
+         */
+        private int splitPoint() {
+            int middle = size / 2;
+
+            for (int offset = 0; offset <= middle; offset++) {
+                if (this.distanceChangesAt(middle - offset)) {
+                    return middle - offset;
+                }
+
+                if (this.distanceChangesAt(middle + offset)) {
+                    return middle + offset;
+                }
+            }
+
+            return -1;
+        }
+
+        private boolean distanceChangesAt(int position) {
+            return position > 0 && position < size && !sameDistance(keys[position], keys[position - 1]);
+        }
+
+        /**
+         * Finds the key strands of the bridges, the strands they join and their neighbours.
+         */
+        private KeyStrands index(int strandCount) {
+            int[] positions = new int[4 * size];
+
+            for (int i = 0; i < size; i++) {
+                int strand = strandOf(keys[i]);
+
+                positions[4 * i] = Math.floorMod(strand - 1, strandCount);
+                positions[4 * i + 1] = strand;
+                positions[4 * i + 2] = (strand + 1) % strandCount;
+                positions[4 * i + 3] = (strand + 2) % strandCount;
+            }
+
+            Arrays.sort(positions);
+
+            int distinct = 0;
+
+            for (int i = 0; i < positions.length; i++) {
+                if (i == 0 || positions[i] != positions[i - 1]) {
+                    positions[distinct++] = positions[i];
+                }
+            }
+
+            return new KeyStrands(Arrays.copyOf(positions, distinct));
+        }
+
+        /**
+         * Sweeps the bridges over the key strands, from their answers before the block to their answers
+         * after it. The key strands form a smaller ring where two neighbours are as far as the strands
+         * they stand for, each bridge exchanges the answers of its two strands and then the smaller of
+         * them spread to the neighbours. Bridges at the same distance that don't share a strand exchange
+         * their answers at once, before any of them spread.
+         */
+        private void sweep(KeyStrands strands, int strandCount) {
+            int[] values = strands.after;
+
+            System.arraycopy(strands.before, 0, values, 0, strands.size);
+
+            for (int start = 0, end; start < size; start = end) {
+                end = this.tieEnd(start);
+
+                if (end - start > 1) {
+                    int[] tie = new int[end - start];
+                    this.tieStrands(start, end, tie);
+
+                    if (SolverWorkspace.isDisjoint(tie, 0, tie.length, strandCount)) {
+                        sweepGroup(strands, tie, strandCount);
+                        continue;
+                    }
+                }
+
+                for (int i = start; i < end; i++) {
+                    sweepBridge(strands, strandOf(keys[i]), strandCount);
+                }
+            }
+        }
+
+        private static void sweepBridge(KeyStrands strands, int strand, int strandCount) {
+            int[] values = strands.after;
+            int count = strands.size;
+            int first = strands.indexOf(strand);
+            int second = (first + 1) % count;
+
+            if (first == second) {
+                // A bridge on a web of a single strand joins it with itself
+                return;
+            }
+
+            int swap = values[first];
+            values[first] = values[second];
+            values[second] = swap;
+
+            if (count == 2) {
+                int a = Math.min(values[first], values[second] + 1);
+                values[second] = Math.min(values[second], values[first] + 1);
+                values[first] = a;
+                return;
+            }
+
+            int left = (first + count - 1) % count;
+            int right = (second + 1) % count;
+            int a = Math.min(values[first], values[left] + strands.gapAfter(left, strandCount));
+            int b = Math.min(values[second], values[right] + strands.gapAfter(second, strandCount));
+
+            values[first] = Math.min(a, b + 1);
+            values[second] = Math.min(b, a + 1);
+
+            int current = first;
+
+            for (int j = left; j != second; j = (j + count - 1) % count) {
+                int value = values[current] + strands.gapAfter(j, strandCount);
+
+                if (value >= values[j]) {
+                    break;
+                }
+
+                values[j] = value;
+                current = j;
+            }
+
+            current = second;
+
+            for (int j = right; j != first; j = (j + 1) % count) {
+                int value = values[current] + strands.gapAfter(current, strandCount);
+
+                if (value >= values[j]) {
+                    break;
+                }
+
+                values[j] = value;
+                current = j;
+            }
+        }
+
+        /**
+         * Sweeps bridges at the same distance that don't share a strand. The answers of the key strands
+         * they join are exchanged, lowered by the closest key strands that no bridge joins and spread
+         * between them, then each one spreads to the untouched key strands on both sides.
+         *
+         * @param tie The strands where the bridges start, sorted in ascending order.
+         */
+        private static void sweepGroup(KeyStrands strands, int[] tie, int strandCount) {
+            int[] values = strands.after;
+            int count = strands.size;
+            int size = 2 * tie.length;
+            int[] points = new int[size];
+            int[] group = new int[size];
+
+            for (int i = 0; i < size; i += 2) {
+                points[i] = strands.indexOf(tie[i / 2]);
+                points[i + 1] = (points[i] + 1) % count;
+                group[i] = values[points[i + 1]];
+                group[i + 1] = values[points[i]];
+            }
+
+            for (int i = 0; i < size; i++) {
+                int after = (points[i] + 1) % count;
+                int before = (points[i] + count - 1) % count;
+
+                if (after != points[(i + 1) % size]) {
+                    group[i] = Math.min(group[i], values[after] + strands.gapAfter(points[i], strandCount));
+                }
+
+                if (before != points[(i + size - 1) % size]) {
+                    group[i] = Math.min(group[i], values[before] + strands.gapAfter(before, strandCount));
+                }
+            }
+
+            for (int k = 1; k < 2 * size; k++) {
+                int i = k % size;
+                int previous = (k - 1) % size;
+                group[i] = Math.min(group[i], group[previous] + strands.distance(points[previous], points[i], strandCount));
+            }
+
+            for (int k = 2 * size - 2; k >= 0; k--) {
+                int i = k % size;
+                int next = (k + 1) % size;
+                group[i] = Math.min(group[i], group[next] + strands.distance(points[i], points[next], strandCount));
+            }
+
+            for (int i = 0; i < size; i++) {
+                values[points[i]] = group[i];
+            }
+
+            for (int i = 0; i < size; i++) {
+                int next = points[(i + 1) % size];
+                int previous = points[(i + size - 1) % size];
+                int current = points[i];
+
+                for (int j = (current + 1) % count; j != next; j = (j + 1) % count) {
+                    int value = values[current] + strands.gapAfter(current, strandCount);
+
+                    if (value >= values[j]) {
+                        break;
+                    }
+
+                    values[j] = value;
+                    current = j;
+                }
+
+                current = points[i];
+
+                for (int j = (current + count - 1) % count; j != previous; j = (j + count - 1) % count) {
+                    int value = values[current] + strands.gapAfter(j, strandCount);
+
+                    if (value >= values[j]) {
+                        break;
+                    }
+
+                    values[j] = value;
+                    current = j;
+                }
+            }
+        }
+    }
+
+    /**
+     * The key strands of a block in ascending order, with their answers before and after it.
+     */
+    private static final class KeyStrands {
+        private static final KeyStrands EMPTY = new KeyStrands(new int[0]);
+
+        private final int[] positions;
+        private final int[] before;
+        private final int[] after;
+        private final int size;
+
+        private KeyStrands(int[] positions) {
+            this.positions = positions;
+            this.before = new int[positions.length];
+            this.after = new int[positions.length];
+            this.size = positions.length;
+        }
+
+        private KeyStrands withSamePositions() {
+            KeyStrands copy = new KeyStrands(positions);
+            System.arraycopy(before, 0, copy.before, 0, size);
+
+            return copy;
+        }
+
+        private int indexOf(int strand) {
+            return Arrays.binarySearch(positions, 0, size, strand);
+        }
+
+        /**
+         * Gets the distance from the key strand at the index to the next one, clockwise.
+         */
+        private int gapAfter(int index, int strandCount) {
+            return index + 1 < size ? positions[index + 1] - positions[index] : positions[0] + strandCount - positions[index];
+        }
+
+        /**
+         * Gets the distance from the key strand at the first index to the one at the second, clockwise.
+         */
+        private int distance(int first, int second, int strandCount) {
+            return Math.floorMod(positions[second] - positions[first], strandCount);
+        }
+
+        /**
+         * Gets the smallest answer after the block that the strand can take from the key strands, by
+         * adding a bridge for each strand between them. The closest key strand on each side is enough,
+         * the answers of the others are not smaller than theirs plus the distance.
+         */
+        private int cone(int strand, int strandCount) {
+            int position = this.indexOf(strand);
+            return position >= 0 ? after[position] : this.coneAt(-position - 1, strand, strandCount);
+        }
+
+        private int coneAt(int insertion, int strand, int strandCount) {
+            if (size == 0) {
+                return UNREACHABLE;
+            }
+
+            int next = insertion % size;
+            int previous = (insertion + size - 1) % size;
+
+            return Math.min(after[next] + circularDistance(strand, positions[next], strandCount),
+                    after[previous] + circularDistance(strand, positions[previous], strandCount));
+        }
+
+        /**
+         * Gets the index of a key strand counting around the ring, or -1 if there are none.
+         */
+        private int wrap(int index) {
+            return size == 0 ? -1 : Math.floorMod(index, size);
+        }
+
+        /**
+         * Gets the answer the strand takes from the key strand at the index.
+         */
+        private int coneFrom(int apex, int strand, int strandCount) {
+            return apex < 0 ? UNREACHABLE : after[apex] + circularDistance(strand, positions[apex], strandCount);
+        }
+
+        /**
+         * Gets the answer the strand takes from the key strand at the index, walking clockwise from it.
+         */
+        private int forwardCone(int apex, int strand, int strandCount) {
+            return apex < 0 ? UNREACHABLE : after[apex] + Math.floorMod(strand - positions[apex], strandCount);
+        }
+
+        /**
+         * Gets the answer the strand takes from the key strand at the index, walking counterclockwise from it.
+         */
+        private int backwardCone(int apex, int strand, int strandCount) {
+            return apex < 0 ? UNREACHABLE : after[apex] + Math.floorMod(positions[apex] - strand, strandCount);
+        }
+
+        /**
+         * Merges the positions of two versions of the key strands.
+         */
+        private static int[] union(KeyStrands first, KeyStrands second) {
+            if (first.positions == second.positions) {
+                return first.positions;
+            }
+
+            int[] merged = new int[first.size + second.size];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+
+            while (i < first.size || j < second.size) {
+                int next;
+
+                if (j == second.size || (i < first.size && first.positions[i] < second.positions[j])) {
+                    next = first.positions[i++];
+                } else if (i == first.size || second.positions[j] < first.positions[i]) {
+                    next = second.positions[j++];
+                } else {
+                    next = first.positions[i++];
+                    j++;
+                }
+
+                merged[size++] = next;
+            }
+
+            return Arrays.copyOf(merged, size);
+        }
+    }
+
+    /**
+     * Strands whose answer differs between the old and the new bridges, with both answers.
+     */
+    private static final class Changes {
+        private static final Changes NONE = new Changes();
+
+        private int[] strands = new int[8];
+        private int[] oldValues = new int[8];
+        private int[] newValues = new int[8];
+        private int size;
+
+        private void add(int strand, int oldValue, int newValue) {
+            if (size == strands.length) {
+                strands = Arrays.copyOf(strands, size << 1);
+                oldValues = Arrays.copyOf(oldValues, size << 1);
+                newValues = Arrays.copyOf(newValues, size << 1);
+            }
+
+            strands[size] = strand;
+            oldValues[size] = oldValue;
+            newValues[size] = newValue;
+            size++;
+        }
+
+        private int indexOf(int strand) {
+            return Arrays.binarySearch(strands, 0, size, strand);
+        }
+
+        /**
+         * Follows the changes through a block that doesn't read any of them.
+         */
+        private Changes through(KeyStrands block, int strandCount) {
+            Changes result = new Changes();
+            int insertion = 0;
+
+            for (int i = 0; i < size; i++) {
+                while (insertion < block.size && block.positions[insertion] < strands[i]) {
+                    insertion++;
+                }
+
+                int cone = block.coneAt(insertion, strands[i], strandCount);
+                int oldValue = Math.min(oldValues[i], cone);
+                int newValue = Math.min(newValues[i], cone);
+
+                if (oldValue != newValue) {
+                    result.add(strands[i], oldValue, newValue);
+                }
+            }
+
+            return result;
+        }
+
+        private void sort() {
+            long[] order = new long[size];
+
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) strands[i] << 32) | i;
+            }
+
+            Arrays.sort(order);
+
+            int[] sortedStrands = new int[Math.max(8, size)];
+            int[] sortedOld = new int[sortedStrands.length];
+            int[] sortedNew = new int[sortedStrands.length];
+
+            for (int i = 0; i < size; i++) {
+                int from = (int) order[i];
+                sortedStrands[i] = strands[from];
+                sortedOld[i] = oldValues[from];
+                sortedNew[i] = newValues[from];
+            }
+
+            strands = sortedStrands;
+            oldValues = sortedOld;
+            newValues = sortedNew;
+        }
+    }
+}
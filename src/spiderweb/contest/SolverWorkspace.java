@@ -0,0 +1,1142 @@
+package spiderweb.contest;
+
+import spiderweb.bridges.BridgeSet;
+import spiderweb.metrics.SolverPhaseEvent;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Reusable buffers for the spider walk solver.
+ * The buffers grow on demand and are kept between calls, so solving inputs of a similar size
+ * repeatedly does not allocate. A workspace is not thread safe.
+ */
+public class SolverWorkspace {
+
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX_SIZE = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX_SIZE - 1;
+
+    private final int[] radixCounts;
+    private final HierarchicalBitSet notDescending;
+    private final HierarchicalBitSet notAscending;
+
+    private int[] strandCounts;
+    private int[] sortKeys;
+    private int[] sortStrands;
+    private int[] scratchKeys;
+    private int[] scratchStrands;
+    private long[] queryKeys;
+    private int[] logStarts;
+    private int[] groupStarts;
+    private int[] logPositions;
+    private int[] logDeltas;
+    private int logSize;
+    private int[] groupPoints;
+    private int[] groupOld;
+    private int[] groupValues;
+    private int[] groupRuns;
+    private boolean recording;
+    private int strandCount;
+    private int bridgeCount;
+
+    /**
+     * Constructs an empty workspace, the buffers are allocated on the first solve.
+     */
+    public SolverWorkspace() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructs a workspace with buffers pre-sized for the given input size.
+     *
+     * @param strandCapacity The number of strands the workspace can solve without growing.
+     * @param bridgeCapacity The number of bridges the workspace can solve without growing.
+     */
+    public SolverWorkspace(int strandCapacity, int bridgeCapacity) {
+        this.radixCounts = new int[RADIX_SIZE + 1];
+        this.notDescending = new HierarchicalBitSet(strandCapacity);
+        this.notAscending = new HierarchicalBitSet(strandCapacity);
+        this.strandCounts = new int[strandCapacity + 1];
+        this.sortKeys = new int[bridgeCapacity];
+        this.sortStrands = new int[bridgeCapacity];
+        this.scratchKeys = new int[bridgeCapacity];
+        this.scratchStrands = new int[bridgeCapacity];
+        this.queryKeys = new long[0];
+        this.logStarts = new int[0];
+        this.groupStarts = new int[0];
+        this.logPositions = new int[0];
+        this.logDeltas = new int[0];
+        this.groupPoints = new int[0];
+        this.groupOld = new int[0];
+        this.groupValues = new int[0];
+        this.groupRuns = new int[0];
+    }
+
+    /**
+     * Solves the spider walk problem and writes the answer of each strand in the given array.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @param answers        The destination array, its length must be at least strandCount.
+     */
+    public void solve(int strandCount, int favoriteStrand, int[][] bridges, int[] answers) {
+        checkLength(answers, strandCount);
+
+        this.loadBridges(strandCount, bridges);
+        this.sweep(favoriteStrand);
+        this.writeAnswers(answers);
+    }
+
+    /**
+     * Solves the spider walk problem and writes the answer of each strand in the given array.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges stored by columns.
+     * @param answers        The destination array, its length must be at least strandCount.
+     */
+    public void solve(int strandCount, int favoriteStrand, BridgeSet bridges, int[] answers) {
+        checkLength(answers, strandCount);
+
+        this.loadBridges(strandCount, bridges);
+        this.sweep(favoriteStrand);
+        this.writeAnswers(answers);
+    }
+
+    /**
+     * Solves the spider walk problem and sends the answer of each strand, in strand order, to the consumer.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @param consumer       The consumer that receives the answers.
+     */
+    public void solve(int strandCount, int favoriteStrand, int[][] bridges, IntConsumer consumer) {
+        this.loadBridges(strandCount, bridges);
+        this.sweep(favoriteStrand);
+        this.unbuildCounts();
+
+        for (int i = 0; i < strandCount; i++) {
+            consumer.accept(strandCounts[i + 1]);
+        }
+    }
+
+    /**
+     * Solves the spider walk problem.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @return A new array with the answer of each strand.
+     */
+    public int[] solve(int strandCount, int favoriteStrand, int[][] bridges) {
+        int[] answers = new int[strandCount];
+        this.solve(strandCount, favoriteStrand, bridges, answers);
+
+        return answers;
+    }
+
+    /**
+     * Solves the spider walk problem.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges stored by columns.
+     * @return A new array with the answer of each strand.
+     */
+    public int[] solve(int strandCount, int favoriteStrand, BridgeSet bridges) {
+        int[] answers = new int[strandCount];
+        this.solve(strandCount, favoriteStrand, bridges, answers);
+
+        return answers;
+    }
+
+    /**
+     * Solves the spider walk problem for several favorite strands in a single pass, the answer of each
+     * strand is the minimum number of bridges needed to end on any of the favorites.
+     *
+     * @param strandCount     The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands of the spider.
+     * @param bridges         The bridges in the form {distance, strand}.
+     * @param answers         The destination array, its length must be at least strandCount.
+     */
+    public void solve(int strandCount, int[] favoriteStrands, int[][] bridges, int[] answers) {
+        checkLength(answers, strandCount);
+
+        this.loadBridges(strandCount, bridges);
+        this.sweep(favoriteStrands);
+        this.writeAnswers(answers);
+    }
+
+    /**
+     * Solves the spider walk problem for several favorite strands in a single pass.
+     *
+     * @param strandCount     The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands of the spider.
+     * @param bridges         The bridges stored by columns.
+     * @param answers         The destination array, its length must be at least strandCount.
+     */
+    public void solve(int strandCount, int[] favoriteStrands, BridgeSet bridges, int[] answers) {
+        checkLength(answers, strandCount);
+
+        this.loadBridges(strandCount, bridges);
+        this.sweep(favoriteStrands);
+        this.writeAnswers(answers);
+    }
+
+    /**
+     * Solves the spider walk problem for several favorite strands in a single pass.
+     *
+     * @param strandCount     The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands of the spider.
+     * @param bridges         The bridges in the form {distance, strand}.
+     * @return A new array with the answer of each strand.
+     */
+    public int[] solve(int strandCount, int[] favoriteStrands, int[][] bridges) {
+        int[] answers = new int[strandCount];
+        this.solve(strandCount, favoriteStrands, bridges, answers);
+
+        return answers;
+    }
+
+    /**
+     * Answers many (start, favorite) queries over the same bridges. The bridges are sorted once and swept
+     * once per distinct favorite, or once per distinct start when the queries have fewer of them, and the
+     * queries that share that strand are read from the same sweep.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges in the form {distance, strand}.
+     * @param queries     The queries in the form {startStrand, favoriteStrand}.
+     * @param answers     The destination array, answers[i] is the answer of queries[i].
+     */
+    public void solvePairs(int strandCount, int[][] bridges, int[][] queries, int[] answers) {
+        checkLength(answers, queries.length);
+
+        this.loadBridges(strandCount, bridges);
+        this.answerPairs(queries, answers);
+    }
+
+    /**
+     * Answers many (start, favorite) queries over the same bridges.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges stored by columns.
+     * @param queries     The queries in the form {startStrand, favoriteStrand}.
+     * @param answers     The destination array, answers[i] is the answer of queries[i].
+     */
+    public void solvePairs(int strandCount, BridgeSet bridges, int[][] queries, int[] answers) {
+        checkLength(answers, queries.length);
+
+        this.loadBridges(strandCount, bridges);
+        this.answerPairs(queries, answers);
+    }
+
+    /**
+     * Answers many (start, favorite) queries over the same bridges.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges in the form {distance, strand}.
+     * @param queries     The queries in the form {startStrand, favoriteStrand}.
+     * @return A new array where the position i is the answer of queries[i].
+     */
+    public int[] solvePairs(int strandCount, int[][] bridges, int[][] queries) {
+        int[] answers = new int[queries.length];
+        this.solvePairs(strandCount, bridges, queries, answers);
+
+        return answers;
+    }
+
+    /**
+     * Finds the bridges that must be added so that the spider starting on the initial strand ends on the
+     * favorite strand, as many as the answer of the strand. The sweep keeps a log of its updates and the
+     * walk from the center undoes it bridge by bridge, adding a bridge to a neighbour strand whenever that
+     * strand needs one bridge less. The new bridges go between the existing ones, one unit apart.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @param initialStrand  The strand where the spider starts.
+     * @param radio          The radio of the spider web, the new bridges are closer than it.
+     * @return The bridges to add in the form {distance, strand} and in walking order, or null if
+     * there is not enough room between two bridges to place them.
+     */
+    public int[][] witness(int strandCount, int favoriteStrand, int[][] bridges, int initialStrand, int radio) {
+        this.loadBridges(strandCount, bridges);
+        return this.recordAndWalk(favoriteStrand, initialStrand, radio);
+    }
+
+    /**
+     * Finds the bridges that must be added so that the spider starting on the initial strand ends on the
+     * favorite strand.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges stored by columns.
+     * @param initialStrand  The strand where the spider starts.
+     * @param radio          The radio of the spider web, the new bridges are closer than it.
+     * @return The bridges to add in the form {distance, strand} and in walking order, or null if
+     * there is not enough room between two bridges to place them.
+     */
+    public int[][] witness(int strandCount, int favoriteStrand, BridgeSet bridges, int initialStrand, int radio) {
+        this.loadBridges(strandCount, bridges);
+        return this.recordAndWalk(favoriteStrand, initialStrand, radio);
+    }
+
+    /**
+     * Starts a sweep that is fed one bridge at a time, the bridges must be given by descending distance.
+     *
+     * @param strandCount     The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands of the spider.
+     */
+    void begin(int strandCount, int[] favoriteStrands) {
+        this.ensureCapacity(strandCount, 0);
+        this.strandCount = strandCount;
+        this.bridgeCount = 0;
+
+        this.fillDistances(favoriteStrands);
+        this.buildCounts();
+    }
+
+    /**
+     * Processes the next bridge of a sweep started with begin.
+     *
+     * @param strand The strand where the bridge starts.
+     */
+    void process(int strand) {
+        this.processBridge(strand);
+    }
+
+    /**
+     * Processes the next bridges of a sweep started with begin, all of them at the same distance.
+     *
+     * @param strands The strands where the bridges start, sorted in ascending order.
+     * @param from    The index of the first bridge, inclusive.
+     * @param to      The index of the last bridge, exclusive.
+     */
+    void process(int[] strands, int from, int to) {
+        this.processTie(strands, from, to, false);
+    }
+
+    /**
+     * Reads the current count of a strand in a sweep started with begin.
+     *
+     * @param strand The strand to read.
+     * @return The count of the strand after the bridges processed so far.
+     */
+    int answer(int strand) {
+        return this.queryCounter(strand);
+    }
+
+    /**
+     * Copies the current counts of a sweep started with begin to the given array.
+     *
+     * @param answers The destination array, its length must be at least the number of strands.
+     */
+    void answers(int[] answers) {
+        System.arraycopy(strandCounts, 1, answers, 0, strandCount);
+
+        for (int i = strandCount; i >= 1; i--) {
+            int parent = i + (i & -i);
+
+            if (parent <= strandCount) {
+                answers[parent - 1] -= answers[i - 1];
+            }
+        }
+
+        for (int i = 1; i < strandCount; i++) {
+            answers[i] += answers[i - 1];
+        }
+    }
+
+    private static void checkLength(int[] answers, int length) {
+        if (answers.length < length) {
+            throw new IllegalArgumentException("The answers array must have at least " + length + " positions");
+        }
+    }
+
+    /**
+     * Reads the answers of the last sweep into the given array.
+     */
+    private void writeAnswers(int[] answers) {
+        this.unbuildCounts();
+
+        for (int i = 0; i < strandCount; i++) {
+            answers[i] = strandCounts[i + 1];
+        }
+    }
+
+    /**
+     * Sweeps the loaded bridges once per distinct strand of one side of the queries. A sweep from the
+     * edge gives the answer of every start strand for one favorite, and a sweep from the center, over the
+     * bridges in the opposite order, gives the answer of every favorite for one start, so the side with
+     * fewer distinct strands is the one swept.
+     */
+    private void answerPairs(int[][] queries, int[] answers) {
+        if (queryKeys.length < queries.length) {
+            queryKeys = new long[queries.length];
+        }
+
+        int favoriteCount = this.sortQueries(queries, 1);
+        boolean fromCenter = this.sortQueries(queries, 0) < favoriteCount;
+
+        if (!fromCenter) {
+            this.sortQueries(queries, 1);
+        }
+
+        int lastStrand = -1;
+
+        for (int i = 0; i < queries.length; i++) {
+            int strand = (int) (queryKeys[i] >>> 32);
+            int query = (int) queryKeys[i];
+
+            if (i == 0 || strand != lastStrand) {
+                if (fromCenter) {
+                    this.sweepFromCenter(strand);
+                } else {
+                    this.sweep(strand);
+                }
+
+                lastStrand = strand;
+            }
+
+            answers[query] = queryCounter(queries[query][fromCenter ? 1 : 0]);
+        }
+    }
+
+    /**
+     * Sorts the queries by one of their strands in the query keys.
+     *
+     * @return The number of distinct strands on that side.
+     */
+    private int sortQueries(int[][] queries, int side) {
+        for (int i = 0; i < queries.length; i++) {
+            queryKeys[i] = ((long) queries[i][side] << 32) | i;
+        }
+
+        Arrays.sort(queryKeys, 0, queries.length);
+
+        int distinct = 0;
+
+        for (int i = 0; i < queries.length; i++) {
+            if (i == 0 || queryKeys[i] >>> 32 != queryKeys[i - 1] >>> 32) {
+                distinct++;
+            }
+        }
+
+        return distinct;
+    }
+
+    /**
+     * Copies the bridges into the sort buffers and sorts them by descending distance.
+     */
+    private void loadBridges(int strandCount, int[][] bridges) {
+        this.ensureCapacity(strandCount, bridges.length);
+        this.strandCount = strandCount;
+        this.bridgeCount = bridges.length;
+
+        for (int i = 0; i < bridgeCount; i++) {
+            sortKeys[i] = bridges[i][0] ^ Integer.MAX_VALUE;
+            sortStrands[i] = bridges[i][1];
+        }
+
+        SolverPhaseEvent event = SolverPhaseEvent.beginIfRecording();
+        this.sortByDistanceDescending();
+        SolverPhaseEvent.commit(event, "sort", strandCount, bridgeCount);
+    }
+
+    /**
+     * Copies the columns of the bridges into the sort buffers and sorts them by descending distance.
+     */
+    private void loadBridges(int strandCount, BridgeSet bridges) {
+        this.ensureCapacity(strandCount, bridges.size());
+        this.strandCount = strandCount;
+        this.bridgeCount = bridges.size();
+
+        int[] distances = bridges.distances();
+
+        for (int i = 0; i < bridgeCount; i++) {
+            sortKeys[i] = distances[i] ^ Integer.MAX_VALUE;
+        }
+
+        System.arraycopy(bridges.strands(), 0, sortStrands, 0, bridgeCount);
+
+        SolverPhaseEvent event = SolverPhaseEvent.beginIfRecording();
+        this.sortByDistanceDescending();
+        SolverPhaseEvent.commit(event, "sort", strandCount, bridgeCount);
+    }
+
+    /**
+     * Processes the loaded bridges for the given favorite strand, after it the Fenwick tree holds the answers.
+     */
+    private void sweep(int favoriteStrand) {
+        SolverPhaseEvent event = SolverPhaseEvent.beginIfRecording();
+        this.fillDistances(favoriteStrand);
+        this.buildCounts();
+        SolverPhaseEvent.commit(event, "init", strandCount, bridgeCount);
+
+        this.processBridges();
+    }
+
+    /**
+     * Processes the loaded bridges for several favorite strands at once, the count of each strand
+     * starts as the distance to its closest favorite.
+     */
+    private void sweep(int[] favoriteStrands) {
+        SolverPhaseEvent event = SolverPhaseEvent.beginIfRecording();
+        this.fillDistances(favoriteStrands);
+        this.buildCounts();
+        SolverPhaseEvent.commit(event, "init", strandCount, bridgeCount);
+
+        this.processBridges();
+    }
+
+    /**
+     * Processes the loaded bridges by ascending distance starting from the given strand, after it the Fenwick
+     * tree holds the answer of that start for each favorite strand. A bridge swaps the answers of its two
+     * strands whichever way the spider crosses it, so walking out from the center is the same sweep.
+     */
+    private void sweepFromCenter(int startStrand) {
+        SolverPhaseEvent event = SolverPhaseEvent.beginIfRecording();
+        this.fillDistances(startStrand);
+        this.buildCounts();
+        SolverPhaseEvent.commit(event, "init", strandCount, bridgeCount);
+
+        event = SolverPhaseEvent.beginIfRecording();
+
+        for (int end = bridgeCount, start; end > 0; end = start) {
+            start = this.tieStart(end);
+            this.processTie(sortStrands, start, end, true);
+        }
+
+        SolverPhaseEvent.commit(event, "sweep", strandCount, bridgeCount);
+    }
+
+    private void processBridges() {
+        SolverPhaseEvent event = SolverPhaseEvent.beginIfRecording();
+
+        for (int start = 0, end; start < bridgeCount; start = end) {
+            end = this.tieEnd(start);
+            this.processTie(sortStrands, start, end, false);
+        }
+
+        SolverPhaseEvent.commit(event, "sweep", strandCount, bridgeCount);
+    }
+
+    /**
+     * Gets the end, exclusive, of the run of sorted bridges at the same distance as the one at the start.
+     */
+    private int tieEnd(int start) {
+        int end = start + 1;
+
+        while (end < bridgeCount && sortKeys[end] == sortKeys[start]) {
+            end++;
+        }
+
+        return end;
+    }
+
+    /**
+     * Gets the start of the run of sorted bridges at the same distance as the one before the end.
+     */
+    private int tieStart(int end) {
+        int start = end - 1;
+
+        while (start > 0 && sortKeys[start - 1] == sortKeys[end - 1]) {
+            start--;
+        }
+
+        return start;
+    }
+
+    /**
+     * Processes bridges at the same distance. The spider crosses all of them at the same time, so when
+     * they don't share a strand they are processed as a group. Otherwise the web is not valid and they
+     * are taken one at a time in the order of the sweep.
+     *
+     * @param reversed True if the sweep goes from the center, so the bridges are taken backwards.
+     */
+    private void processTie(int[] strands, int from, int to, boolean reversed) {
+        if (to - from > 1 && isDisjoint(strands, from, to, strandCount)) {
+            this.processGroup(strands, from, to);
+        } else if (reversed) {
+            for (int i = to - 1; i >= from; i--) {
+                this.processBridge(strands[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                this.processBridge(strands[i]);
+            }
+        }
+    }
+
+    /**
+     * Checks that no two of the bridges join the same strand.
+     *
+     * @param strands     The strands where the bridges start, sorted in ascending order.
+     * @param from        The index of the first bridge, inclusive.
+     * @param to          The index of the last bridge, exclusive.
+     * @param strandCount The number of strands in the spider web.
+     * @return True if every bridge joins two strands that no other bridge joins.
+     */
+    static boolean isDisjoint(int[] strands, int from, int to, int strandCount) {
+        for (int i = from + 1; i < to; i++) {
+            if (strands[i] - strands[i - 1] < 2) {
+                return false;
+            }
+        }
+
+        return strands[from] + strandCount - strands[to - 1] >= 2;
+    }
+
+    /**
+     * Sweeps the loaded bridges keeping the log of the updates of each one, or of each group of bridges
+     * processed at once, then walks from the center.
+     */
+    private int[][] recordAndWalk(int favoriteStrand, int initialStrand, int radio) {
+        if (logStarts.length < bridgeCount + 1) {
+            logStarts = new int[bridgeCount + 1];
+        }
+
+        if (groupStarts.length < bridgeCount) {
+            groupStarts = new int[bridgeCount];
+        }
+
+        this.fillDistances(favoriteStrand);
+        this.buildCounts();
+
+        logSize = 0;
+        recording = true;
+
+        for (int start = 0, end; start < bridgeCount; start = end) {
+            end = this.tieEnd(start);
+            boolean group = end - start > 1 && isDisjoint(sortStrands, start, end, strandCount);
+
+            for (int i = start; i < end; i++) {
+                groupStarts[i] = group ? start : i;
+                logStarts[i] = logSize;
+
+                if (!group) {
+                    this.processBridge(sortStrands[i]);
+                }
+            }
+
+            if (group) {
+                this.processGroup(sortStrands, start, end);
+            }
+        }
+
+        logStarts[bridgeCount] = logSize;
+        recording = false;
+
+        return this.walkWitness(initialStrand, radio);
+    }
+
+    /**
+     * Walks from the center to the edge. Between the bridges j and j - 1 the counts are the ones of the
+     * sweep after j bridges, the spider adds bridges to neighbour strands whose count is one less and
+     * then crosses the group of bridge j - 1, which must keep its count.
+     */
+    private int[][] walkWitness(int strand, int radio) {
+        int count = queryCounter(strand);
+        int[][] witness = new int[count][];
+        int added = 0;
+
+        for (int j = bridgeCount; j >= 0; j = j > 0 ? groupStarts[j - 1] : -1) {
+            int lower = j < bridgeCount ? sortKeys[j] ^ Integer.MAX_VALUE : 0;
+            int upper = j > 0 ? sortKeys[j - 1] ^ Integer.MAX_VALUE : radio;
+            int distance = lower + 1;
+
+            // Moving to a neighbour with one bridge less never costs more, so it is done as soon as there is room
+            int neighbour = this.neighbourWithCount(strand, count - 1);
+
+            while (neighbour >= 0 && distance < upper) {
+                boolean clockwise = neighbour == nextIndex(strand, 1);
+                witness[added++] = new int[]{distance, clockwise ? strand : neighbour};
+
+                distance++;
+                strand = neighbour;
+                count--;
+                neighbour = this.neighbourWithCount(strand, count - 1);
+            }
+
+            int start = j > 0 ? groupStarts[j - 1] : 0;
+            int target = j > 0 ? this.countBefore(start, j, this.crossed(start, j, strand)) : 0;
+
+            if (count != target) {
+                return null;
+            }
+
+            if (j > 0) {
+                strand = this.crossed(start, j, strand);
+                this.undoBridges(start, j);
+            }
+        }
+
+        return witness;
+    }
+
+    /**
+     * Gets the strand where the spider ends after the sorted bridges from start to end, exclusive, if it
+     * is on the given strand. They are a group that doesn't share strands, so at most one of them is crossed.
+     */
+    private int crossed(int start, int end, int strand) {
+        for (int k = start; k < end; k++) {
+            int bridgeStrand = sortStrands[k];
+            int next = nextIndex(bridgeStrand, 1);
+
+            if (strand == bridgeStrand) {
+                return next;
+            }
+
+            if (strand == next) {
+                return bridgeStrand;
+            }
+        }
+
+        return strand;
+    }
+
+    private int neighbourWithCount(int strand, int count) {
+        if (count < 0 || strandCount < 2) {
+            return -1;
+        }
+
+        if (queryCounter(nextIndex(strand, 1)) == count) {
+            return nextIndex(strand, 1);
+        }
+
+        if (queryCounter(previousIndex(strand, 1)) == count) {
+            return previousIndex(strand, 1);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Reads the count that the strand had before the sorted bridges from start to end, exclusive, were
+     * processed, without undoing them.
+     */
+    private int countBefore(int start, int end, int strand) {
+        int count = queryCounter(strand);
+
+        for (int i = logStarts[start]; i < logStarts[end]; i++) {
+            if (logPositions[i] <= strand) {
+                count -= logDeltas[i];
+            }
+        }
+
+        return count;
+    }
+
+    private void undoBridges(int start, int end) {
+        for (int i = logStarts[end] - 1; i >= logStarts[start]; i--) {
+            update(logPositions[i], -logDeltas[i]);
+        }
+    }
+
+    private void log(int position, int delta) {
+        if (logSize == logPositions.length) {
+            int capacity = Math.max(16, logSize << 1);
+            logPositions = Arrays.copyOf(logPositions, capacity);
+            logDeltas = Arrays.copyOf(logDeltas, capacity);
+        }
+
+        logPositions[logSize] = position;
+        logDeltas[logSize] = delta;
+        logSize++;
+    }
+
+    private void ensureCapacity(int strandCount, int bridgeCount) {
+        if (strandCounts.length < strandCount + 1) {
+            strandCounts = new int[strandCount + 1];
+        }
+
+        if (sortKeys.length < bridgeCount) {
+            sortKeys = new int[bridgeCount];
+            sortStrands = new int[bridgeCount];
+            scratchKeys = new int[bridgeCount];
+            scratchStrands = new int[bridgeCount];
+        }
+    }
+
+    /**
+     * LSD radix sort of the bridges, the keys are the distances flipped so that the unsigned ascending
+     * order of the keys is the descending order of the distances. The bridges at the same distance end
+     * ordered by strand, so a single pass tells if any two of them share a strand.
+     */
+    private void sortByDistanceDescending() {
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            int[] counts = radixCounts;
+
+            for (int i = 0; i <= RADIX_SIZE; i++) {
+                counts[i] = 0;
+            }
+
+            for (int i = 0; i < bridgeCount; i++) {
+                counts[((sortKeys[i] >>> shift) & RADIX_MASK) + 1]++;
+            }
+
+            for (int i = 0; i < RADIX_SIZE; i++) {
+                counts[i + 1] += counts[i];
+            }
+
+            for (int i = 0; i < bridgeCount; i++) {
+                int position = counts[(sortKeys[i] >>> shift) & RADIX_MASK]++;
+                scratchKeys[position] = sortKeys[i];
+                scratchStrands[position] = sortStrands[i];
+            }
+
+            int[] swap = sortKeys;
+            sortKeys = scratchKeys;
+            scratchKeys = swap;
+
+            swap = sortStrands;
+            sortStrands = scratchStrands;
+            scratchStrands = swap;
+        }
+
+        // Bridges at the same distance are taken by strand, so the answers don't depend on the order of the input
+        // even when two of them share a strand
+        for (int start = 0, end; start < bridgeCount; start = end) {
+            end = start + 1;
+
+            while (end < bridgeCount && sortKeys[end] == sortKeys[start]) {
+                end++;
+            }
+
+            if (end - start > 1) {
+                Arrays.sort(sortStrands, start, end);
+            }
+        }
+    }
+
+    /**
+     * Writes in strandCounts[i + 1] the circular distance from the strand i to the favorite strand.
+     */
+    private void fillDistances(int favoriteStrand) {
+        for (int i = 0; i < strandCount; i++) {
+            strandCounts[i + 1] = Math.min(Math.abs(favoriteStrand - i), strandCount - Math.abs(favoriteStrand - i));
+        }
+    }
+
+    /**
+     * Writes in strandCounts[i + 1] the circular distance from the strand i to its closest favorite strand,
+     * with two passes around the ring in each direction.
+     */
+    private void fillDistances(int[] favoriteStrands) {
+        if (favoriteStrands.length == 0) {
+            throw new IllegalArgumentException("At least one favorite strand is required");
+        }
+
+        for (int i = 1; i <= strandCount; i++) {
+            strandCounts[i] = strandCount;
+        }
+
+        for (int favoriteStrand : favoriteStrands) {
+            strandCounts[favoriteStrand + 1] = 0;
+        }
+
+        for (int i = 1; i < 2 * strandCount; i++) {
+            int current = i % strandCount + 1;
+            int previous = (i - 1) % strandCount + 1;
+            strandCounts[current] = Math.min(strandCounts[current], strandCounts[previous] + 1);
+        }
+
+        for (int i = 2 * strandCount - 2; i >= 0; i--) {
+            int current = i % strandCount + 1;
+            int next = (i + 1) % strandCount + 1;
+            strandCounts[current] = Math.min(strandCounts[current], strandCounts[next] + 1);
+        }
+    }
+
+    /**
+     * Builds, in linear time, the Fenwick tree of the differences between adjacent strands and the
+     * sets of steps used to find runs, starting from the plain counts stored by fillDistances.
+     */
+    private void buildCounts() {
+        notDescending.reset(strandCount);
+        notAscending.reset(strandCount);
+
+        if (strandCount == 0) {
+            return;
+        }
+
+        int last = strandCounts[strandCount];
+
+        for (int i = strandCount; i >= 1; i--) {
+            int previous = i == 1 ? last : strandCounts[i - 1];
+            markStep(i - 1, strandCounts[i] - previous);
+
+            if (i > 1) {
+                strandCounts[i] -= previous;
+            }
+        }
+
+        for (int i = 1; i <= strandCount; i++) {
+            int parent = i + (i & -i);
+
+            if (parent <= strandCount) {
+                strandCounts[parent] += strandCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Turns the Fenwick tree back into plain values in linear time, strand i ends in position i + 1.
+     */
+    private void unbuildCounts() {
+        for (int i = strandCount; i >= 1; i--) {
+            int parent = i + (i & -i);
+
+            if (parent <= strandCount) {
+                strandCounts[parent] -= strandCounts[i];
+            }
+        }
+
+        for (int i = 2; i <= strandCount; i++) {
+            strandCounts[i] += strandCounts[i - 1];
+        }
+    }
+
+    private void processBridge(int target) {
+        int nx = nextIndex(target, 1);
+        int v1 = queryCounter(target);
+        int v2 = queryCounter(nx);
+
+        assert Math.abs(v1 - v2) <= 1;
+
+        if (v1 == v2) {
+            return;
+        }
+
+        if (v1 > v2) {
+            int current = descendingRunBefore(target);
+            processUpdates(target, target, -1);
+
+            if (current != 0) {
+                processWork(previousIndex(target, current), previousIndex(target, 1));
+            }
+
+            if (queryCounter(nextIndex(nx, 1)) != v2 - 1) {
+                processUpdates(nx, nx, 1);
+            }
+        } else {
+            int current = ascendingRunAfter(nx);
+            processUpdates(nx, nx, -1);
+
+            if (current != 0) {
+                processWork(nextIndex(nx, 1), nextIndex(nx, current));
+            }
+
+            if (queryCounter(previousIndex(target, 1)) != v1 - 1) {
+                processUpdates(target, target, 1);
+            }
+        }
+    }
+
+    /**
+     * Processes bridges at the same distance that don't share a strand. All of them exchange the counts
+     * of their strands first, and only then the smaller counts spread to the neighbours, since the spider
+     * reaches them at the same time. A count changes by at most one, so the strands no bridge touches
+     * only lose one along a run of steps leaving a touched strand whose count went down.
+     *
+     * @param strands The strands where the bridges start, sorted in ascending order.
+     * @param from    The index of the first bridge, inclusive.
+     * @param to      The index of the last bridge, exclusive.
+     */
+    private void processGroup(int[] strands, int from, int to) {
+        int size = 2 * (to - from);
+
+        if (groupPoints.length < size) {
+            groupPoints = new int[size];
+            groupOld = new int[size];
+            groupValues = new int[size];
+            groupRuns = new int[2 * size];
+        }
+
+        // The touched strands in clockwise order, each bridge exchanges the counts of a pair of them
+        for (int i = 0; i < size; i += 2) {
+            int strand = strands[from + i / 2];
+
+            groupPoints[i] = strand;
+            groupPoints[i + 1] = nextIndex(strand, 1);
+            groupOld[i] = queryCounter(strand);
+            groupOld[i + 1] = queryCounter(groupPoints[i + 1]);
+            groupValues[i] = groupOld[i + 1];
+            groupValues[i + 1] = groupOld[i];
+        }
+
+        // The closest untouched strand on each side is the only one that can lower a touched strand
+        for (int i = 0; i < size; i++) {
+            int after = nextIndex(groupPoints[i], 1);
+            int before = previousIndex(groupPoints[i], 1);
+
+            if (after != groupPoints[(i + 1) % size]) {
+                groupValues[i] = Math.min(groupValues[i], queryCounter(after) + 1);
+            }
+
+            if (before != groupPoints[(i + size - 1) % size]) {
+                groupValues[i] = Math.min(groupValues[i], queryCounter(before) + 1);
+            }
+        }
+
+        for (int k = 1; k < 2 * size; k++) {
+            int i = k % size;
+            int previous = (k - 1) % size;
+            groupValues[i] = Math.min(groupValues[i], groupValues[previous] + this.gap(groupPoints[previous], groupPoints[i]));
+        }
+
+        for (int k = 2 * size - 2; k >= 0; k--) {
+            int i = k % size;
+            int next = (k + 1) % size;
+            groupValues[i] = Math.min(groupValues[i], groupValues[next] + this.gap(groupPoints[i], groupPoints[next]));
+        }
+
+        // The runs are found before any update, while the steps are still the ones before the group
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            int untouched = this.gap(groupPoints[i], groupPoints[next]) - 1;
+            int left = groupValues[i] < groupOld[i] ? Math.min(this.ascendingRunAfter(groupPoints[i]), untouched) : 0;
+            int right = groupValues[next] < groupOld[next] ? Math.min(this.descendingRunBefore(groupPoints[next]), untouched) : 0;
+
+            groupRuns[2 * i] = left;
+            groupRuns[2 * i + 1] = Math.min(right, untouched - left);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (groupValues[i] != groupOld[i]) {
+                processUpdates(groupPoints[i], groupPoints[i], groupValues[i] - groupOld[i]);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            int next = groupPoints[(i + 1) % size];
+
+            if (groupRuns[2 * i] != 0) {
+                processWork(nextIndex(groupPoints[i], 1), nextIndex(groupPoints[i], groupRuns[2 * i]));
+            }
+
+            if (groupRuns[2 * i + 1] != 0) {
+                processWork(previousIndex(next, groupRuns[2 * i + 1]), previousIndex(next, 1));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of steps from the first strand to the second one, walking clockwise.
+     */
+    private int gap(int first, int second) {
+        return (second - first + strandCount) % strandCount;
+    }
+
+    /**
+     * Counts how many strands before the target, walking counterclockwise, have a count one
+     * greater than the previous one, that is the run of descending steps ending on the target.
+     */
+    private int descendingRunBefore(int target) {
+        int stop = notDescending.previousSetBit(target);
+        int run;
+
+        if (stop >= 0) {
+            run = target - stop;
+        } else {
+            stop = notDescending.previousSetBit(strandCount - 1);
+            run = stop >= 0 ? target + strandCount - stop : strandCount;
+        }
+
+        return Math.min(run, strandCount - 2);
+    }
+
+    /**
+     * Counts how many strands after the given one, walking clockwise, have a count one
+     * greater than the previous one, that is the run of ascending steps starting after it.
+     */
+    private int ascendingRunAfter(int strand) {
+        int start = nextIndex(strand, 1);
+        int stop = notAscending.nextSetBit(start);
+        int run;
+
+        if (stop >= 0) {
+            run = stop - start;
+        } else {
+            stop = notAscending.nextSetBit(0);
+            run = stop >= 0 ? strandCount - start + stop : strandCount;
+        }
+
+        return Math.min(run, strandCount - 2);
+    }
+
+    /**
+     * Classifies the step between the given strand and the previous one.
+     */
+    private void markStep(int strand, int step) {
+        if (step == -1) {
+            notDescending.clear(strand);
+        } else {
+            notDescending.set(strand);
+        }
+
+        if (step == 1) {
+            notAscending.clear(strand);
+        } else {
+            notAscending.set(strand);
+        }
+    }
+
+    private void refreshStep(int strand) {
+        markStep(strand, queryCounter(strand) - queryCounter(previousIndex(strand, 1)));
+    }
+
+    private int nextIndex(int next, int current) {
+        return (next + current) % strandCount;
+    }
+
+    private int previousIndex(int next, int current) {
+        return (next - current + strandCount) % strandCount;
+    }
+
+    private void update(int first, int second) {
+        first += 1;
+
+        while (first <= strandCount) {
+            strandCounts[first] += second;
+            first += first & -first;
+        }
+    }
+
+    private int queryCounter(int x) {
+        int res = 0;
+        x += 1;
+
+        while (x > 0) {
+            res += strandCounts[x];
+            x -= x & -x;
+        }
+
+        return res;
+    }
+
+    private void processUpdates(int left, int right, int x) {
+        update(left, x);
+        update(right + 1, -x);
+
+        if (recording) {
+            log(left, x);
+            log(right + 1, -x);
+        }
+
+        refreshStep(left);
+        refreshStep(nextIndex(right, 1));
+    }
+
+    private void processWork(int left, int right) {
+        if (left <= right) {
+            processUpdates(left, right, -1);
+        } else {
+            processUpdates(left, strandCount - 1, -1);
+            processUpdates(0, right, -1);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package spiderweb.contest;
+
+import spiderweb.bridges.Bridge;
+import spiderweb.bridges.BridgeSet;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the bridges of each strand sorted by distance, used to simulate the walk of the spider
+ * from the center to the edge. Every bridge is stored in both of its strands, so each hop is a
+ * binary search over the bridges of the current strand.
+ */
+public class WalkIndex {
+
+    private final int[] offsets;
+    private final int[] distances;
+    private final int[] targets;
+
+    /**
+     * Constructs the index from the two endpoints of each bridge.
+     *
+     * @param distances      The distance of each bridge.
+     * @param initialStrands The initial strand of each bridge.
+     * @param finalStrands   The final strand of each bridge.
+     * @param bridgeCount    The number of bridges.
+     */
+    private WalkIndex(int[] distances, int[] initialStrands, int[] finalStrands, int bridgeCount) {
+        int strandCount = 0;
+
+        for (int i = 0; i < bridgeCount; i++) {
+            strandCount = Math.max(strandCount, Math.max(initialStrands[i], finalStrands[i]) + 1);
+        }
+
+        long[] byDistance = new long[2 * bridgeCount];
+
+        for (int i = 0; i < bridgeCount; i++) {
+            byDistance[2 * i] = ((long) distances[i] << 32) | (2L * i);
+            byDistance[2 * i + 1] = ((long) distances[i] << 32) | (2L * i + 1);
+        }
+
+        Arrays.sort(byDistance);
+
+        this.offsets = new int[strandCount + 1];
+        this.distances = new int[2 * bridgeCount];
+        this.targets = new int[2 * bridgeCount];
+
+        for (int i = 0; i < bridgeCount; i++) {
+            offsets[initialStrands[i] + 1]++;
+            offsets[finalStrands[i] + 1]++;
+        }
+
+        for (int strand = 0; strand < strandCount; strand++) {
+            offsets[strand + 1] += offsets[strand];
+        }
+
+        int[] next = Arrays.copyOf(offsets, strandCount);
+
+        for (long entry : byDistance) {
+            int endpoint = (int) entry;
+            int bridge = endpoint >>> 1;
+            boolean fromInitial = (endpoint & 1) == 0;
+            int strand = fromInitial ? initialStrands[bridge] : finalStrands[bridge];
+            int position = next[strand]++;
+
+            this.distances[position] = distances[bridge];
+            this.targets[position] = fromInitial ? finalStrands[bridge] : initialStrands[bridge];
+        }
+    }
+
+    /**
+     * Builds the index of the given bridges.
+     *
+     * @param bridges The bridges of the spider web.
+     * @return The walk index of the bridges.
+     */
+    public static WalkIndex of(List<Bridge> bridges) {
+        int size = bridges.size();
+        int[] distances = new int[size];
+        int[] initialStrands = new int[size];
+        int[] finalStrands = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            Bridge bridge = bridges.get(i);
+            distances[i] = bridge.getDistance();
+            initialStrands[i] = bridge.getInitialStrand();
+            finalStrands[i] = bridge.getFinalStrand();
+        }
+
+        return new WalkIndex(distances, initialStrands, finalStrands, size);
+    }
+
+    /**
+     * Builds the index of the given contest bridges, each one joins its strand with the next one.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges stored by columns.
+     * @return The walk index of the bridges.
+     */
+    public static WalkIndex of(int strandCount, BridgeSet bridges) {
+        int size = bridges.size();
+        int[] finalStrands = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            finalStrands[i] = (bridges.getStrand(i) + 1) % strandCount;
+        }
+
+        return new WalkIndex(bridges.distances(), bridges.strands(), finalStrands, size);
+    }
+
+    /**
+     * Simulates the walk of the spider from the center, crossing every bridge it finds.
+     *
+     * @param initialStrand The strand where the spider starts.
+     * @return The strand where the spider ends.
+     */
+    public int walk(int initialStrand) {
+        int currentStrand = initialStrand;
+        int currentDistance = 0;
+
+        while (currentStrand >= 0 && currentStrand < offsets.length - 1) {
+            int position = this.firstAfter(currentStrand, currentDistance);
+
+            if (position < 0) {
+                break;
+            }
+
+            currentStrand = targets[position];
+            currentDistance = distances[position];
+        }
+
+        return currentStrand;
+    }
+
+    /**
+     * Finds the first bridge of the strand that is farther than the given distance.
+     *
+     * @return The position of the bridge, or -1 if there is none.
+     */
+    private int firstAfter(int strand, int distance) {
+        int low = offsets[strand];
+        int high = offsets[strand + 1];
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (distances[middle] <= distance) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low < offsets[strand + 1] ? low : -1;
+    }
+}
@@ -0,0 +1,206 @@
+package spiderweb.contest;
+
+import spiderweb.bridges.Bridge;
+import spiderweb.bridges.BridgeSet;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the final strand of the walk of every initial strand at once. The bridges are swept from the
+ * center to the edge and each one exchanges the spiders standing on its two strands, so the walks of all
+ * the strands cost one sort of the bridges.
+ * <p>
+ * Bridges at the same distance are crossed together: a spider that just crossed a bridge doesn't cross
+ * another one at the same distance, and when two of them touch the same strand the first one in the list
+ * is taken. In that case two spiders can end up on the same strand, from then on they walk together.
+ */
+public class WalkSweep {
+
+    private final int strandCount;
+    private final int[] occupants;
+    private final int[] groupStrands;
+    private final int[] parents;
+    private final int[] claims;
+    private final int[] destinations;
+    private final int[] movedStrands;
+    private final int[] movedGroups;
+
+    private WalkSweep(int strandCount) {
+        this.strandCount = strandCount;
+        this.occupants = new int[strandCount];
+        this.groupStrands = new int[strandCount];
+        this.parents = new int[strandCount];
+        this.claims = new int[strandCount];
+        this.destinations = new int[strandCount];
+        this.movedStrands = new int[strandCount];
+        this.movedGroups = new int[strandCount];
+
+        for (int strand = 0; strand < strandCount; strand++) {
+            occupants[strand] = strand;
+            groupStrands[strand] = strand;
+            parents[strand] = strand;
+            claims[strand] = -1;
+        }
+    }
+
+    /**
+     * Finds the final strand of the walk of every initial strand over the given bridges.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges of the spider web.
+     * @return The final strand of each initial strand.
+     */
+    public static int[] finalStrands(int strandCount, List<Bridge> bridges) {
+        int size = bridges.size();
+        int[] distances = new int[size];
+        int[] initialStrands = new int[size];
+        int[] finalStrands = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            Bridge bridge = bridges.get(i);
+            distances[i] = bridge.getDistance();
+            initialStrands[i] = bridge.getInitialStrand();
+            finalStrands[i] = bridge.getFinalStrand();
+        }
+
+        return new WalkSweep(strandCount).sweep(distances, initialStrands, finalStrands, size);
+    }
+
+    /**
+     * Finds the final strand of the walk of every initial strand over the given contest bridges, each one
+     * joins its strand with the next one.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges stored by columns.
+     * @return The final strand of each initial strand.
+     */
+    public static int[] finalStrands(int strandCount, BridgeSet bridges) {
+        int size = bridges.size();
+        int[] finalStrands = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            finalStrands[i] = (bridges.getStrand(i) + 1) % strandCount;
+        }
+
+        return new WalkSweep(strandCount).sweep(bridges.distances(), bridges.strands(), finalStrands, size);
+    }
+
+    private int[] sweep(int[] distances, int[] initialStrands, int[] finalStrands, int bridgeCount) {
+        long[] order = new long[bridgeCount];
+
+        for (int i = 0; i < bridgeCount; i++) {
+            order[i] = ((long) distances[i] << 32) | i;
+        }
+
+        Arrays.sort(order);
+
+        int groupStart = 0;
+
+        // The spider starts at distance 0 and only crosses bridges that are farther
+        while (groupStart < bridgeCount && distances[(int) order[groupStart]] <= 0) {
+            groupStart++;
+        }
+
+        while (groupStart < bridgeCount) {
+            int groupEnd = groupStart + 1;
+
+            while (groupEnd < bridgeCount && order[groupEnd] >>> 32 == order[groupStart] >>> 32) {
+                groupEnd++;
+            }
+
+            if (groupEnd - groupStart == 1) {
+                int bridge = (int) order[groupStart];
+                this.swap(initialStrands[bridge], finalStrands[bridge]);
+            } else {
+                this.crossTogether(order, groupStart, groupEnd, initialStrands, finalStrands);
+            }
+
+            groupStart = groupEnd;
+        }
+
+        int[] result = new int[strandCount];
+
+        for (int strand = 0; strand < strandCount; strand++) {
+            result[strand] = groupStrands[this.find(strand)];
+        }
+
+        return result;
+    }
+
+    /**
+     * Crosses a single bridge, the spiders on its two strands exchange places.
+     */
+    private void swap(int first, int second) {
+        int firstGroup = occupants[first];
+        int secondGroup = occupants[second];
+
+        occupants[first] = secondGroup;
+        occupants[second] = firstGroup;
+
+        if (firstGroup >= 0) {
+            groupStrands[firstGroup] = second;
+        }
+
+        if (secondGroup >= 0) {
+            groupStrands[secondGroup] = first;
+        }
+    }
+
+    /**
+     * Crosses the bridges at the same distance, every strand takes the first of them that touches it.
+     */
+    private void crossTogether(long[] order, int from, int to, int[] initialStrands, int[] finalStrands) {
+        int moves = 0;
+
+        for (int i = from; i < to; i++) {
+            int bridge = (int) order[i];
+            int initialStrand = initialStrands[bridge];
+            int finalStrand = finalStrands[bridge];
+
+            if (claims[initialStrand] != from) {
+                claims[initialStrand] = from;
+                destinations[initialStrand] = finalStrand;
+                movedStrands[moves++] = initialStrand;
+            }
+
+            if (claims[finalStrand] != from) {
+                claims[finalStrand] = from;
+                destinations[finalStrand] = initialStrand;
+                movedStrands[moves++] = finalStrand;
+            }
+        }
+
+        for (int i = 0; i < moves; i++) {
+            movedGroups[i] = occupants[movedStrands[i]];
+            occupants[movedStrands[i]] = -1;
+        }
+
+        for (int i = 0; i < moves; i++) {
+            int group = movedGroups[i];
+
+            if (group < 0) {
+                continue;
+            }
+
+            int destination = destinations[movedStrands[i]];
+            int current = occupants[destination];
+
+            if (current >= 0) {
+                parents[group] = current;
+            } else {
+                occupants[destination] = group;
+                groupStrands[group] = destination;
+            }
+        }
+    }
+
+    private int find(int group) {
+        while (parents[group] != group) {
+            parents[group] = parents[parents[group]];
+            group = parents[group];
+        }
+
+        return group;
+    }
+}
@@ -1,27 +1,54 @@
 package spiderweb.main;
 
+import interfaces.Copyable;
+import shape.AnimationClock;
+import shape.AnimationScheduler;
 import shape.Canvas;
+import shape.Renderer;
+import shape.Renderers;
+import shape.Viewport;
 import spiderweb.bridges.*;
+import spiderweb.contest.IncrementalSolver;
+import spiderweb.contest.WalkSweep;
+import spiderweb.metrics.Metrics;
+import spiderweb.metrics.WalkHopEvent;
 import spiderweb.spider.Spider;
 import spiderweb.strands.BouncyStrand;
 import spiderweb.strands.KillerStrand;
 import spiderweb.strands.NormalStrand;
 import spiderweb.strands.Strand;
+import utilities.CopyOnWrite;
 import utilities.MessageHandler;
+import utilities.PersistentList;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntUnaryOperator;
 
-public class SpiderWeb {
+public class SpiderWeb implements Copyable<SpiderWeb> {
 
     public static boolean TEST_MODE = false;
 
-    private final ArrayList<Strand> strands;
-    private final ArrayList<Bridge> bridges;
-    private final ArrayList<Bridge> usedBridges;
+    /**
+     * The radius in pixels of the edge of the spider web, whatever its radio is.
+     */
+    private static final int VIEWPORT_RADIUS = Canvas.WIDTH / 2 - 20;
+
+    /**
+     * The errors of a batch of bridges shown in its message, the rest are only counted.
+     */
+    private static final int REPORTED_ERRORS = 10;
+
+    private final CopyOnWrite<PersistentList<Strand>> strands;
+    private final CopyOnWrite<BridgeIndex> bridgeIndex;
+    private final CopyOnWrite<PersistentList<Bridge>> usedBridges;
     private final Spider spider;
-    private int favoriteStrand;
+    private final Viewport viewport;
+    private IncrementalSolver solver;
+    private final CopyOnWrite<TreeSet<Integer>> favoriteStrands;
 
     private boolean lastActionWasOk;
     private boolean isVisible;
@@ -43,38 +70,67 @@ public class SpiderWeb {
 
         this.isVisible = false;
 
-        this.spider = new Spider(new Point(Canvas.CENTER));
-        this.strands = new ArrayList<>(this.strandCount);
-        this.bridges = new ArrayList<>();
-        this.usedBridges = new ArrayList<>();
-        this.favoriteStrand = -1;
-        this.currentDistance = 0;
+        this.viewport = new Viewport(Canvas.CENTER, VIEWPORT_RADIUS);
+        this.viewport.setModel(this.strandCount, this.radio);
 
-        this.generateStrandLines();
+        this.spider = new Spider(this.viewport.getCenter());
+        this.strands = new CopyOnWrite<>(newStrands(this.strandCount), PersistentList::copy);
+        this.bridgeIndex = new CopyOnWrite<>(new BridgeIndex(), BridgeIndex::copy);
+        this.usedBridges = new CopyOnWrite<>(new PersistentList<>(), PersistentList::copy);
+        this.favoriteStrands = new CopyOnWrite<>(new TreeSet<>(), TreeSet::new);
+        this.currentDistance = 0;
     }
 
     /**
-     * Constructs a SpiderWeb with the specified number of strands, favorite strands, and bridges.
+     * Constructs a SpiderWeb with the specified number of strands, favorite strand, and bridges.
      *
      * @param strands        The number of strands in the spider web.
-     * @param favoriteStrand The number of favorite strands in the spider web.
+     * @param favoriteStrand The favorite strand in the spider web.
      * @param bridges        The bridges in the spider web.
      * @throws Exception If the input is invalid.
      */
     public SpiderWeb(int strands, int favoriteStrand, int[][] bridges) throws Exception {
+        this(strands, new int[]{favoriteStrand}, toBridgeSet(bridges));
+    }
 
-        // TODO: Add favorite strand logic
+    /**
+     * Constructs a SpiderWeb with the specified number of strands, favorite strands, and bridges.
+     *
+     * @param strands         The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands in the spider web.
+     * @param bridges         The bridges in the spider web.
+     * @throws Exception If the input is invalid.
+     */
+    public SpiderWeb(int strands, int[] favoriteStrands, int[][] bridges) throws Exception {
+        this(strands, favoriteStrands, toBridgeSet(bridges));
+    }
 
-        ArrayList<Bridge> temporalBridges = new ArrayList<>();
-        int radio = 0;
+    /**
+     * Constructs a SpiderWeb with the specified number of strands, favorite strand, and bridges.
+     *
+     * @param strands        The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand in the spider web.
+     * @param bridges        The bridges in the spider web, stored by columns.
+     * @throws Exception If the input is invalid.
+     */
+    public SpiderWeb(int strands, int favoriteStrand, BridgeSet bridges) throws Exception {
+        this(strands, new int[]{favoriteStrand}, bridges);
+    }
 
-        for (int[] bridge : bridges) {
-            if (bridge.length != 2) {
-                MessageHandler.showFatalError("Enter a valid input! in the form: 'd t'");
-            }
+    /**
+     * Constructs a SpiderWeb with the specified number of strands, favorite strands, and bridges.
+     *
+     * @param strands         The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands in the spider web.
+     * @param bridges         The bridges in the spider web, stored by columns.
+     * @throws Exception If the input is invalid.
+     */
+    public SpiderWeb(int strands, int[] favoriteStrands, BridgeSet bridges) throws Exception {
+        int radio = 0;
 
-            int radioBridge = bridge[0];
-            int initialStrand = bridge[1];
+        for (int i = 0; i < bridges.size(); i++) {
+            int radioBridge = bridges.getDistance(i);
+            int initialStrand = bridges.getStrand(i);
 
             if (initialStrand < 0 || initialStrand >= strands) {
                 MessageHandler.showFatalError("The bridge must be built on a valid strand");
@@ -87,11 +143,6 @@ public class SpiderWeb {
             if (radioBridge > radio) {
                 radio = radioBridge;
             }
-
-            String bridgeColor = String.format("%s-%s", initialStrand, radioBridge);
-            temporalBridges.add(new NormalBridge(radioBridge, initialStrand, initialStrand + 1, null, null, bridgeColor));
-
-            //TODO: All Bridge Created by This Constructor Will Be Normals
         }
 
         final int STRAND_PADDING = 20;
@@ -103,17 +154,87 @@ public class SpiderWeb {
 
         this.isVisible = false;
 
-        this.spider = new Spider(new Point(Canvas.CENTER));
-        this.strands = new ArrayList<>(this.strandCount);
-        this.generateStrandLines();
-        this.addFavoriteStrand(favoriteStrand);
+        this.viewport = new Viewport(Canvas.CENTER, VIEWPORT_RADIUS);
+        this.viewport.setModel(this.strandCount, this.radio);
+
+        this.spider = new Spider(this.viewport.getCenter());
+        this.strands = new CopyOnWrite<>(newStrands(this.strandCount), PersistentList::copy);
+        this.favoriteStrands = new CopyOnWrite<>(new TreeSet<>(), TreeSet::new);
+
+        for (int favoriteStrand : favoriteStrands) {
+            this.addFavoriteStrand(favoriteStrand);
+        }
+
+        this.bridgeIndex = new CopyOnWrite<>(new BridgeIndex(), BridgeIndex::copy);
+        this.usedBridges = new CopyOnWrite<>(new PersistentList<>(), PersistentList::copy);
 
-        this.bridges = new ArrayList<>();
-        this.usedBridges = new ArrayList<>();
+        //TODO: All Bridge Created by This Constructor Will Be Normals
+        this.addBridges(bridges);
+    }
 
-        for (Bridge bridge : temporalBridges) {
-            this.addBridge(bridge.getColor(), bridge.getDistance(), bridge.getInitialStrand());
+    /**
+     * Converts the contest input to a set of bridges, checking that every bridge is in the form {d, t}.
+     *
+     * @param bridges The bridges in the form {distance, strand}.
+     * @return The set of bridges.
+     * @throws Exception If a bridge is not in the form {d, t}.
+     */
+    private static BridgeSet toBridgeSet(int[][] bridges) throws Exception {
+        for (int[] bridge : bridges) {
+            if (bridge.length != 2) {
+                MessageHandler.showFatalError("Enter a valid input! in the form: 'd t'");
+            }
         }
+
+        return BridgeSet.of(bridges);
+    }
+
+    /**
+     * Creates the given number of normal strands.
+     */
+    private static PersistentList<Strand> newStrands(int strandCount) {
+        PersistentList<Strand> strands = new PersistentList<>();
+
+        for (int i = 0; i < strandCount; i++) {
+            strands.add(new NormalStrand());
+        }
+
+        return strands;
+    }
+
+    /**
+     * Constructs a snapshot of the given spider web. The strands, bridges and favorite strands are
+     * shared with the original until one of the two changes them. The strands and bridges are kept in
+     * persistent lists, so that change copies only O(log n + log m) nodes instead of whole lists.
+     *
+     * @param original The spider web to copy.
+     */
+    private SpiderWeb(SpiderWeb original) {
+        this.strands = original.strands.share();
+        this.bridgeIndex = original.bridgeIndex.share();
+        this.usedBridges = original.usedBridges.share();
+        this.favoriteStrands = original.favoriteStrands.share();
+        this.spider = original.spider.copy();
+        this.viewport = original.viewport.copy();
+
+        this.lastActionWasOk = original.lastActionWasOk;
+        this.isVisible = false;
+        this.currentStrand = original.currentStrand;
+        this.strandCount = original.strandCount;
+        this.radio = original.radio;
+        this.currentDistance = original.currentDistance;
+    }
+
+    /**
+     * Takes a snapshot of the spider web in constant time. The snapshot keeps the types of the strands
+     * and bridges, it is invisible and has no solver attached, and the changes made on the original
+     * later don't reach it.
+     *
+     * @return The snapshot of the spider web.
+     */
+    @Override
+    public SpiderWeb copy() {
+        return new SpiderWeb(this);
     }
 
     /**
@@ -160,90 +281,76 @@ public class SpiderWeb {
             return;
         }
 
-        bridges.sort(Comparator.comparingInt(Bridge::getDistance));
-        this.currentDistance = 0;
-
-        if(moveToCenter){
-            this.bridges.sort((Bridge b1, Bridge b2) -> b2.getDistance() - b1.getDistance());
-            this.currentDistance = this.radio;
-        }
+        long start = System.nanoTime();
+        int bridgesCrossed = 0;
 
+        this.currentDistance = moveToCenter ? this.radio : 0;
         this.currentStrand = targetStrand;
 
-        boolean flag = true;
-        this.strands.get(currentStrand).triggerAction(this);
+        this.triggerStrandAction();
 
-        while (flag) {
-            if (!spider.isAlive()) {
-                break;
-            }
-            int candidates = 0;
-
-            for (int i = 0; i < bridges.size(); i++) {
-
-                Bridge bridge = bridges.get(i);
-
-                if(moveToCenter){
-                    if ((currentStrand != bridge.getInitialStrand() && currentStrand != bridge.getFinalStrand()) || this.currentDistance <= bridge.getDistance()) {
-                        continue;
-                    }
-                }
-                else{
-                    if ((currentStrand != bridge.getInitialStrand() && currentStrand != bridge.getFinalStrand()) || this.currentDistance >= bridge.getDistance()) {
-                        continue;
-                    }
-                }
-
-                candidates++;
-
-                if (currentStrand == bridge.getFinalStrand()) {
-                    this.currentStrand = bridge.getInitialStrand();
-                    this.spider.moveTo(bridge.getFinalPoint());
-                    this.spider.moveTo(bridge.getInitialPoint());
-                    this.currentStrand = bridge.getInitialStrand();
-                } else {
-                    this.currentStrand = bridge.getFinalStrand();
-                    this.spider.moveTo(bridge.getInitialPoint());
-                    this.spider.moveTo(bridge.getFinalPoint());
-                    this.currentStrand = bridge.getFinalStrand();
-                }
-
-                if (moveToCenter){
-                    this.bridges.sort((Bridge b1, Bridge b2) -> b2.getDistance() - b1.getDistance());
-                }
-                else {
-                    bridges.sort(Comparator.comparingInt(Bridge::getDistance));
-                }
-
-                this.currentDistance = bridge.getDistance();
-                usedBridges.add(bridge);
-
-                this.strands.get(currentStrand).triggerAction(this);
-
-                bridge.triggerAction(this);
+        // Each hop takes the closest bridge on the current strand in the direction of the walk
+        while (spider.isAlive()) {
+            Bridge bridge = moveToCenter
+                    ? this.bridgeIndex.read().previous(currentStrand, currentDistance)
+                    : this.bridgeIndex.read().next(currentStrand, currentDistance);
+
+            if (bridge == null) {
                 break;
             }
 
-            if (!spider.isAlive()) {
-                break;
+            WalkHopEvent hop = WalkHopEvent.beginIfRecording();
+            int fromStrand = currentStrand;
+
+            Point initialPoint = this.viewport.project(bridge.getInitialStrand(), bridge.getDistance());
+            Point finalPoint = this.viewport.project(bridge.getFinalStrand(), bridge.getDistance());
+
+            if (currentStrand == bridge.getFinalStrand()) {
+                this.currentStrand = bridge.getInitialStrand();
+                this.spider.moveTo(finalPoint);
+                this.spider.moveTo(initialPoint);
+                this.currentStrand = bridge.getInitialStrand();
+            } else {
+                this.currentStrand = bridge.getFinalStrand();
+                this.spider.moveTo(initialPoint);
+                this.spider.moveTo(finalPoint);
+                this.currentStrand = bridge.getFinalStrand();
             }
 
-            flag = candidates != 0;
+            this.currentDistance = bridge.getDistance();
+            this.usedBridges.write().add(bridge);
+            bridgesCrossed++;
+
+            this.triggerStrandAction();
+
+            Metrics.web().recordBridgeAction(bridge.getType());
+            bridge.triggerAction(this);
+
+            WalkHopEvent.commit(hop, fromStrand, currentStrand, bridge.getDistance(), bridge.getType().name());
         }
 
+        Metrics.web().recordWalk(System.nanoTime() - start, bridgesCrossed);
+
         if (spider.isAlive()) {
             if(moveToCenter){
-                this.spider.moveTo(Canvas.CENTER);
+                this.spider.moveTo(this.viewport.getCenter());
                 this.currentStrand = -1;
                 this.currentDistance = 0;
                 return;
             }
-            this.spider.moveTo(strands.get(currentStrand).getEnd());
+            this.spider.moveTo(this.viewport.projectEnd(currentStrand));
             this.currentDistance = this.radio;
         }
 
     }
 
+    private void triggerStrandAction() {
+        Strand strand = this.strands.read().get(currentStrand);
+
+        Metrics.web().recordStrandAction(strand.getType());
+        strand.triggerAction(this);
+    }
+
     /**
      * Moves the spider to the specified target strand by finding the initial way and then moving the spider.
      *
@@ -269,64 +376,178 @@ public class SpiderWeb {
 
     private int findInitialWay(int targetStrand) {
 
-        ArrayList<Bridge> bridges = new ArrayList<>(this.bridges);
-
-        bridges.sort((Bridge b1, Bridge b2) -> b2.getDistance() - b1.getDistance());
+        BridgeIndex bridgeIndex = this.bridgeIndex.read();
 
-        boolean flag = true;
         int currentStrand = targetStrand;
-        int currentDistance = this.radio;
-
-        while (flag) {
-            int candidates = 0;
-            for (Bridge bridge : bridges) {
-                if ((currentStrand != bridge.getInitialStrand() && currentStrand != bridge.getFinalStrand()) || currentDistance <= bridge.getDistance()) {
-                    continue;
-                }
-                candidates++;
-
-                if (currentStrand == bridge.getFinalStrand()) {
-                    currentStrand = bridge.getInitialStrand();
-
-                } else {
-                    currentStrand = bridge.getFinalStrand();
-                }
-                currentDistance = bridge.getDistance();
-                break;
+        Bridge bridge = bridgeIndex.previous(currentStrand, this.radio);
+
+        while (bridge != null) {
+            if (currentStrand == bridge.getFinalStrand()) {
+                currentStrand = bridge.getInitialStrand();
+            } else {
+                currentStrand = bridge.getFinalStrand();
             }
-            flag = candidates != 0;
+
+            bridge = bridgeIndex.previous(currentStrand, bridge.getDistance());
         }
 
         return currentStrand;
     }
 
     /**
-     * Adds a strand to the spider web.
+     * Adds a strand to the spider web, between the last strand and the first one.
      */
     public void addStrand() {
+        this.insertStrandAt(this.strandCount);
+    }
+
+    /**
+     * Inserts a strand at the given position, the strands from that position on move one place forward.
+     * Every bridge keeps the strands it joins, except the bridge that ended on the strand at the position,
+     * which now ends on the new strand.
+     *
+     * @param position The position of the new strand, from 0 to the number of strands.
+     */
+    public void insertStrandAt(int position) {
+        if (position < 0 || position > this.strandCount) {
+
+            if (isVisible)
+                MessageHandler.showError("Invalid strand", "The strand " + position + " is not valid");
+
+            lastActionWasOk = false;
+            return;
+        }
+
+        int previousStrand = position == 0 ? this.strandCount - 1 : position - 1;
+
+        // Appending only changes the bridges that closed the ring on the last strand
+        List<Bridge> candidates = position == this.strandCount
+                ? new ArrayList<>(this.bridgeIndex.read().getBridges(previousStrand))
+                : this.bridgeIndex.read().getBridges();
+
+        this.strands.write().add(position, new NormalStrand());
         this.strandCount++;
 
-        this.generateStrandLines();
+        this.renumberStrands(candidates, strand -> strand >= position ? strand + 1 : strand);
 
-        if (this.currentStrand != -1)
-            this.spider.setPosition(new Point(this.strands.get(currentStrand).getEnd()));
+        lastActionWasOk = true;
+    }
 
-        ArrayList<Bridge> temporalBridges = new ArrayList<>();
-        ArrayList<Bridge> bridgesClone = new ArrayList<>(this.bridges);
+    /**
+     * Removes the strand at the given position, the strands after it move one place back. The bridges that
+     * touch the removed strand are removed too.
+     *
+     * @param position The position of the strand to remove.
+     */
+    public void removeStrand(int position) {
+        if (position < 0 || position >= this.strandCount || this.strandCount == 1) {
 
-        for (Bridge bridge : bridgesClone) {
-            temporalBridges.add(bridge.copy());
+            if (isVisible)
+                MessageHandler.showError("Invalid strand", "The strand " + position + " can't be removed");
 
-            bridge.erase();
-            this.bridges.remove(bridge);
+            lastActionWasOk = false;
+            return;
         }
 
-        for (Bridge bridge : temporalBridges) {
-            this.addBridge(bridge.getColor(), bridge.getDistance(), bridge.getInitialStrand(), bridge.getType());
+        // Removing the last strand only changes the bridges that touch it
+        List<Bridge> candidates = position == this.strandCount - 1
+                ? new ArrayList<>(this.bridgeIndex.read().getBridges(position))
+                : this.bridgeIndex.read().getBridges();
+
+        this.strands.write().remove(position).erase();
+        this.strandCount--;
+
+        this.renumberStrands(candidates, strand -> strand == position ? -1 : strand > position ? strand - 1 : strand);
+
+        lastActionWasOk = true;
+    }
+
+    /**
+     * Moves the spider, the favorite strands and the given bridges to the new numbering of the strands, a
+     * strand numbered -1 was removed. The bridges that changed strands are rebuilt.
+     *
+     * @param candidates The bridges that may change, the others keep their strands.
+     * @param renumber   The new number of each old strand.
+     */
+    private void renumberStrands(List<Bridge> candidates, IntUnaryOperator renumber) {
+        IdentityHashMap<Bridge, Bridge> changes = new IdentityHashMap<>();
+
+        // The solver sweeps its bridges again after a change of the strands, so the moved ones aren't followed
+        if (this.solver != null)
+            this.solver.setStrandCount(this.strandCount);
+
+        for (Bridge bridge : candidates) {
+            int initialStrand = renumber.applyAsInt(bridge.getInitialStrand());
+            int finalStrand = initialStrand == this.strandCount - 1 ? 0 : initialStrand + 1;
+
+            if (initialStrand < 0 || renumber.applyAsInt(bridge.getFinalStrand()) < 0) {
+                changes.put(bridge, bridge);
+            } else if (initialStrand != bridge.getInitialStrand() || finalStrand != bridge.getFinalStrand()) {
+                changes.put(bridge, this.buildBridge(bridge.getColor(), bridge.getDistance(), initialStrand, finalStrand, bridge.getType()));
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            // Each rebuilt bridge takes the place of the old one, so the order of the bridges is kept
+            this.bridgeIndex.write().replace(changes);
+
+            for (Bridge bridge : changes.keySet()) {
+                bridge.erase();
+
+                if (this.solver != null)
+                    this.solver.removeBridge(bridge.getDistance(), bridge.getInitialStrand());
+            }
+
+            for (Bridge bridge : changes.values()) {
+                if (!changes.containsKey(bridge) && this.solver != null)
+                    this.solver.addBridge(bridge.getDistance(), bridge.getInitialStrand());
+            }
+        }
+
+        TreeSet<Integer> favoriteStrands = new TreeSet<>();
+
+        for (int favoriteStrand : this.favoriteStrands.read()) {
+            int strand = renumber.applyAsInt(favoriteStrand);
+
+            if (strand >= 0)
+                favoriteStrands.add(strand);
         }
+
+        this.favoriteStrands.write().clear();
+        this.favoriteStrands.write().addAll(favoriteStrands);
+
+        this.updateSolverFavorites();
+        this.viewport.setModel(this.strandCount, this.radio);
+
+        if (this.currentStrand != -1) {
+            this.currentStrand = renumber.applyAsInt(this.currentStrand);
+
+            if (this.currentStrand == -1) {
+                this.currentDistance = 0;
+            }
+        }
+
+        this.placeSpider();
+
         this.draw();
+    }
 
-        lastActionWasOk = true;
+    /**
+     * Builds a bridge of the spider web, without adding it.
+     */
+    private Bridge buildBridge(String color, int distance, int initialStrand, int finalStrand, Bridge.Types type) {
+        return BridgeFactory.buildBridge(distance, initialStrand, finalStrand, color, type);
+    }
+
+    /**
+     * Puts the spider where it is on the canvas: the center, or the end of its strand.
+     */
+    private void placeSpider() {
+        if (this.currentStrand == -1) {
+            this.spider.setPosition(this.viewport.getCenter());
+        } else {
+            this.spider.setPosition(this.viewport.projectEnd(currentStrand));
+        }
     }
 
     /**
@@ -344,12 +565,12 @@ public class SpiderWeb {
         }
 
         this.radio += radio;
-        this.generateStrandLines();
+        this.viewport.setModel(this.strandCount, this.radio);
 
         this.draw();
 
         if (this.currentStrand != -1)
-            this.spider.setPosition(new Point(this.strands.get(currentStrand).getEnd()));
+            this.spider.setPosition(this.viewport.projectEnd(currentStrand));
 
         lastActionWasOk = true;
     }
@@ -370,7 +591,7 @@ public class SpiderWeb {
             return;
         }
 
-        this.spider.setPosition(new Point(Canvas.CENTER));
+        this.spider.setPosition(this.viewport.getCenter());
         this.currentStrand = -1;
         this.currentDistance = 0;
 
@@ -378,21 +599,66 @@ public class SpiderWeb {
     }
 
     /**
-     * Generates strand lines based on the number of strands.
+     * Zooms the drawing of the spider web around its center.
+     *
+     * @param factor The factor, greater than 1 to zoom in and between 0 and 1 to zoom out.
      */
-    private void generateStrandLines() {
-        for (Strand strand : this.strands) {
-            strand.erase();
+    public void zoom(double factor) {
+        if (factor <= 0) {
+            MessageHandler.showError("Invalid zoom", "The zoom factor must be greater than 0");
+
+            lastActionWasOk = false;
+            return;
         }
 
-        this.strands.clear();
+        this.viewport.zoom(factor);
+        this.placeSpider();
+        this.draw();
+
+        lastActionWasOk = true;
+    }
+
+    /**
+     * Moves the drawing of the spider web by the given number of pixels.
+     *
+     * @param dx The horizontal offset.
+     * @param dy The vertical offset.
+     */
+    public void pan(int dx, int dy) {
+        this.viewport.pan(dx, dy);
+        this.placeSpider();
+        this.draw();
+
+        lastActionWasOk = true;
+    }
+
+    /**
+     * Sets the playback speed of the animations of the spider, the spider moves at once whatever the
+     * speed is.
+     *
+     * @param speed The speed, 1 is normal speed, 0 doesn't play the animations and
+     *              {@link AnimationClock#UNLIMITED} plays them without waiting.
+     */
+    public void setAnimationSpeed(double speed) {
+        if (speed < 0 || Double.isNaN(speed)) {
+            MessageHandler.showError("Invalid speed", "The animation speed must not be negative");
 
-        for (int index = this.strandCount; index >= 0; index--) {
-            double angle = Math.toRadians((double) 360 / this.strandCount * index);
-            int x = (int) (this.radio * Math.cos(angle));
-            int y = (int) (this.radio * Math.sin(angle));
-            this.strands.add(new NormalStrand(new Point(Canvas.CENTER), new Point(Canvas.CENTER.x + x, Canvas.CENTER.y + y)));
+            lastActionWasOk = false;
+            return;
         }
+
+        AnimationScheduler.getInstance().getClock().setSpeed(speed);
+
+        lastActionWasOk = true;
+    }
+
+    /**
+     * Fast-forwards the animations of the spider that are still being drawn.
+     */
+    public void skipAnimations() {
+        AnimationScheduler.getInstance().skip();
+
+        lastActionWasOk = true;
     }
 
     /**
@@ -400,6 +666,8 @@ public class SpiderWeb {
      */
     public void makeVisible() {
         this.isVisible = true;
+        Renderer renderer = Renderers.current();
+        renderer.setVisible(true);
         this.spider.makeVisible();
         this.draw();
 
@@ -412,8 +680,8 @@ public class SpiderWeb {
     public void makeInvisible() {
         this.isVisible = false;
         this.spider.makeInvisible();
-        Canvas canvas = Canvas.getCanvas();
-        canvas.setVisible(false);
+        Renderer renderer = Renderers.current();
+        renderer.setVisible(false);
         // TODO: Make invisible each element on the canvas, but not the canvas itself
 
         lastActionWasOk = true;
@@ -424,8 +692,16 @@ public class SpiderWeb {
      */
     private void draw() {
         if (this.isVisible) {
-            this.strands.forEach(Strand::draw);
-            this.bridges.forEach(Bridge::draw);
+            int strand = 0;
+
+            for (Strand each : this.strands.read()) {
+                each.draw(this.viewport, strand++);
+            }
+
+            for (Bridge bridge : this.bridgeIndex.read().getBridges()) {
+                bridge.draw(this.viewport);
+            }
+
             this.spider.draw();
         }
     }
@@ -442,13 +718,17 @@ public class SpiderWeb {
         info.append(String.format("The spider web is %s\n", this.isVisible ? "visible" : "invisible"));
         info.append(String.format("The spider web has %d strands\n", this.strandCount));
         info.append(String.format("The spider web has a radio of %d\n", this.radio));
-        info.append(String.format("The spider web has %d bridges\n", this.bridges.size()));
+        info.append(String.format("The spider web has %d bridges\n", this.bridgeIndex.read().size()));
 
-        for (int i = 0; i < this.bridges.size(); i++) {
-            info.append(String.format("    + Bridge %d: %s\n", i + 1, this.bridges.get(i)));
+        int bridgeNumber = 1;
+
+        for (Bridge bridge : this.bridgeIndex.read().getBridges()) {
+            info.append(String.format("    + Bridge %d: %s\n", bridgeNumber++, bridge));
         }
 
-        info.append(String.format("    + Favorite Strand: (%d)\n", this.getFavoriteStrand()));
+        for (int favoriteStrand : this.favoriteStrands.read()) {
+            info.append(String.format("    + Favorite Strand: (%d)\n", favoriteStrand));
+        }
 
         MessageHandler.showInfo(info.toString());
 
@@ -465,43 +745,41 @@ public class SpiderWeb {
      * @return True if the bridge is invalid, otherwise false
      */
     private boolean isInvalidBridge(String color, int distance, int initialStrand, int finalStrand) {
-        if (initialStrand < 0 || initialStrand >= this.strandCount) {
-
-            if (isVisible)
-                MessageHandler.showError("Invalid strand", "The strand " + initialStrand + " is not valid");
+        String[] error = this.findBridgeError(color, distance, initialStrand, finalStrand);
 
-            return true;
+        if (error == null) {
+            return false;
         }
-        if (distance < 0 || distance >= radio) {
 
-            if (isVisible)
-                MessageHandler.showError("Invalid distance", "The distance " + distance + " is not valid");
+        if (isVisible)
+            MessageHandler.showError(error[0], error[1]);
 
-            return true;
-        }
-        if (this.bridges.stream().anyMatch(bridge -> bridge.getColor().equals(color))) {
+        return true;
+    }
 
-            if (isVisible)
-                MessageHandler.showError("The bridge already exists", "The bridge with color " + color + " already exists");
+    /**
+     * Finds why a bridge can't be added, checking the strand, the distance, the color and the conflicts
+     * with the bridges already added.
+     *
+     * @return The title and the message of the error, or null if the bridge is valid.
+     */
+    private String[] findBridgeError(String color, int distance, int initialStrand, int finalStrand) {
+        long start = System.nanoTime();
+        String[] error = null;
 
-            return true;
+        if (initialStrand < 0 || initialStrand >= this.strandCount) {
+            error = new String[]{"Invalid strand", "The strand " + initialStrand + " is not valid"};
+        } else if (distance < 0 || distance >= radio) {
+            error = new String[]{"Invalid distance", "The distance " + distance + " is not valid"};
+        } else if (this.bridgeIndex.read().contains(color)) {
+            error = new String[]{"The bridge already exists", "The bridge with color " + color + " already exists"};
+        } else if (this.bridgeIndex.read().isInConflict(distance, initialStrand, finalStrand)) {
+            error = new String[]{"Bridge in conflict", "Can't create two bridges with the same distance on adjacent strands"};
         }
 
-        boolean inConflict = this.bridges.stream().anyMatch(bridge -> bridge.getDistance() == distance && (
-                (bridge.getInitialStrand() == initialStrand ||
-                        bridge.getFinalStrand() == finalStrand) ||
-                        bridge.getInitialStrand() == finalStrand ||
-                        bridge.getFinalStrand() == initialStrand));
-
-        if (inConflict) {
+        Metrics.web().recordValidation(System.nanoTime() - start, error == null);
 
-            if (isVisible)
-                MessageHandler.showError("Bridge in conflict", "Can't create two bridges with the same distance on adjacent strands");
-
-            return true;
-        }
-
-        return false;
+        return error;
     }
 
     /**
@@ -514,7 +792,7 @@ public class SpiderWeb {
      */
     public void addBridge(String color, int distance, int initialStrand, Bridge.Types type) {
 
-        if(bridges.stream().anyMatch(candidate -> candidate.getColor().equals(color))){
+        if(this.bridgeIndex.read().contains(color)){
             removeBridge(color);
         }
 
@@ -525,11 +803,12 @@ public class SpiderWeb {
             return;
         }
 
-        Point initialPoint = this.strands.get(initialStrand).getScaledPoint((double) distance / this.radio);
-        Point finalPoint = this.strands.get(finalStrand).getScaledPoint((double) distance / this.radio);
+        Bridge bridge = this.buildBridge(color, distance, initialStrand, finalStrand, type);
+        this.bridgeIndex.write().add(bridge);
+        Metrics.web().recordBridgeAdded();
 
-        Bridge bridge = BridgeFactory.buildBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, color, type);
-        this.bridges.add(bridge);
+        if (this.solver != null)
+            this.solver.addBridge(distance, initialStrand);
 
         this.draw();
 
@@ -547,6 +826,56 @@ public class SpiderWeb {
         this.addBridge(color, distance, initialStrand, Bridge.Types.NORMAL);
     }
 
+    /**
+     * Adds a batch of normal bridges, the color of each one is 'strand-distance'. The bridges are
+     * validated in one pass in the given order, each one with hash lookups of its color and its slots
+     * in expected O(1), the invalid ones are skipped and the spider web is drawn once at the end.
+     * <p>
+     * The errors are reported together in a single message that shows the first ten of them and
+     * counts the rest, so a large invalid batch doesn't make a message that can't be read.
+     *
+     * @param bridges The bridges to add, stored by columns.
+     */
+    public void addBridges(BridgeSet bridges) {
+        BridgeIndex bridgeIndex = this.bridgeIndex.write();
+
+        StringBuilder errors = new StringBuilder();
+        int errorCount = 0;
+
+        for (int i = 0; i < bridges.size(); i++) {
+            int distance = bridges.getDistance(i);
+            int initialStrand = bridges.getStrand(i);
+            int finalStrand = initialStrand == this.strandCount - 1 ? 0 : initialStrand + 1;
+            String color = initialStrand + "-" + distance;
+
+            String[] error = this.findBridgeError(color, distance, initialStrand, finalStrand);
+
+            if (error != null) {
+                if (errorCount++ < REPORTED_ERRORS)
+                    errors.append(String.format("%s: %s\n", error[0], error[1]));
+
+                continue;
+            }
+
+            Bridge bridge = this.buildBridge(color, distance, initialStrand, finalStrand, Bridge.Types.NORMAL);
+            bridgeIndex.add(bridge);
+            Metrics.web().recordBridgeAdded();
+
+            if (this.solver != null)
+                this.solver.addBridge(distance, initialStrand);
+        }
+
+        if (errorCount > REPORTED_ERRORS)
+            errors.append(String.format("... and %d more\n", errorCount - REPORTED_ERRORS));
+
+        if (errorCount > 0 && isVisible)
+            MessageHandler.showError(String.format("%d bridges were not added", errorCount), errors.toString());
+
+        this.draw();
+
+        this.lastActionWasOk = errorCount == 0;
+    }
+
     /**
      * Relocates a bridge with the specified color and updates its distance.
      *
@@ -576,23 +905,23 @@ public class SpiderWeb {
      */
     public Bridge removeBridge(String color) {
         Bridge targetBridge = null;
-
-        for (int i = 0; i < this.bridges.size(); i++) {
-            Bridge bridgeToRemove = this.bridges.get(i);
-            if (bridgeToRemove.getColor().equals(color)) {
-                if (this.bridges.get(i) instanceof FixedBridge) {
-                    MessageHandler.showError("You cannot delete a 'Fixed' Bridge");
-                    break;
-                }
-                if (this.bridges.get(i) instanceof TransformerBridge) {
-                    this.removeFavoriteStrand();
-                    this.addFavoriteStrand(bridgeToRemove.getInitialStrand());
-                }
-
-                targetBridge = this.bridges.remove(i);
-                targetBridge.erase();
-                break;
+        Bridge bridgeToRemove = this.bridgeIndex.read().get(color);
+
+        if (bridgeToRemove instanceof FixedBridge) {
+            MessageHandler.showError("You cannot delete a 'Fixed' Bridge");
+        } else if (bridgeToRemove != null) {
+            if (bridgeToRemove instanceof TransformerBridge) {
+                this.removeFavoriteStrand();
+                this.addFavoriteStrand(bridgeToRemove.getInitialStrand());
             }
+
+            this.bridgeIndex.write().remove(bridgeToRemove);
+            targetBridge = bridgeToRemove;
+            targetBridge.erase();
+            Metrics.web().recordBridgeRemoved();
+
+            if (this.solver != null)
+                this.solver.removeBridge(targetBridge.getDistance(), targetBridge.getInitialStrand());
         }
 
         if (targetBridge == null) {
@@ -611,24 +940,17 @@ public class SpiderWeb {
     }
 
     private boolean isInvalidStrand(int strand) {
-        if (strand < 0 || strand > strands.size() - 1) {
+        if (strand < 0 || strand > this.strands.read().size() - 1) {
             MessageHandler.showError("Favorite Strand out of Range");
             return true;
         }
 
-        if (strand == favoriteStrand) {
+        if (this.favoriteStrands.read().contains(strand)) {
             if (isVisible)
                 MessageHandler.showInfo("The new favorite strand cannot be added", "already exist as a favorite");
             return true;
         }
 
-        if (favoriteStrand != -1) {
-            //TODO: error or just substitution
-            if (isVisible)
-                MessageHandler.showError("The new favorite strand cannot be added", "First remove the current favorite 'removeFavoriteStrand()'");
-            return true;
-        }
-
         return false;
     }
 
@@ -644,23 +966,22 @@ public class SpiderWeb {
             return;
         }
 
-        Strand favoriteStrand = this.strands.get(strand);
-
         switch (type) {
             case NORMAL:
-                this.strands.set(strand, new NormalStrand(Canvas.CENTER, favoriteStrand.getEnd(), color));
+                this.strands.write().set(strand, new NormalStrand(color));
                 break;
             case KILLER:
-                this.strands.set(strand, new KillerStrand(Canvas.CENTER, favoriteStrand.getEnd(), color));
+                this.strands.write().set(strand, new KillerStrand(color));
                 break;
             case BOUNCY:
-                this.strands.set(strand, new BouncyStrand(Canvas.CENTER, favoriteStrand.getEnd(), color));
+                this.strands.write().set(strand, new BouncyStrand(color));
                 break;
             default:
                 // TODO: Handle invalid Strand type
                 break;
         }
-        this.favoriteStrand = strand;
+        this.favoriteStrands.write().add(strand);
+        this.updateSolverFavorites();
 
         this.draw();
 
@@ -683,12 +1004,11 @@ public class SpiderWeb {
 
 
     /**
-     * Removes a favorite strand.
-     * Removes a favorite strand.
+     * Removes all the favorite strands.
      */
     public void removeFavoriteStrand() {
 
-        if (favoriteStrand == -1) {
+        if (this.favoriteStrands.read().isEmpty()) {
 
             if (isVisible)
                 MessageHandler.showError("Favorite strand not found", "There is not a favorite Strand yet");
@@ -697,11 +1017,12 @@ public class SpiderWeb {
             return;
         }
 
-        Strand favoriteStrandToRemove = this.strands.get(favoriteStrand);
-
-        this.strands.set(favoriteStrand, new NormalStrand(Canvas.CENTER, favoriteStrandToRemove.getEnd()));
+        for (int favoriteStrand : this.favoriteStrands.read()) {
+            this.strands.write().set(favoriteStrand, new NormalStrand());
+        }
 
-        favoriteStrand = -1;
+        this.favoriteStrands.write().clear();
+        this.updateSolverFavorites();
         MessageHandler.showInfo("The favorite Strand was deleted");
 
         this.draw();
@@ -709,6 +1030,71 @@ public class SpiderWeb {
         lastActionWasOk = true;
     }
 
+    /**
+     * Removes the specified favorite strand, the other favorites are kept.
+     *
+     * @param strand The favorite strand to remove.
+     */
+    public void removeFavoriteStrand(int strand) {
+
+        if (!this.favoriteStrands.read().contains(strand)) {
+
+            if (isVisible)
+                MessageHandler.showError("Favorite strand not found", "The strand " + strand + " is not a favorite");
+
+            lastActionWasOk = false;
+            return;
+        }
+
+        this.strands.write().set(strand, new NormalStrand());
+
+        this.favoriteStrands.write().remove(strand);
+        this.updateSolverFavorites();
+
+        this.draw();
+
+        lastActionWasOk = true;
+    }
+
+    /**
+     * Attaches a solver that keeps, while bridges are added, removed or relocated, the minimum number of
+     * bridges needed to reach a favorite strand from each strand.
+     *
+     * @return The solver attached to this spider web.
+     */
+    public IncrementalSolver attachSolver() {
+        if (this.solver == null) {
+            this.solver = new IncrementalSolver(this.strandCount, this.getFavoriteStrands());
+
+            for (Bridge bridge : this.bridgeIndex.read().getBridges()) {
+                this.solver.addBridge(bridge.getDistance(), bridge.getInitialStrand());
+            }
+        }
+
+        return this.solver;
+    }
+
+    /**
+     * Finds where the spider ends when it walks from each strand to the edge over the current bridges.
+     *
+     * @return The final strand of each initial strand.
+     */
+    public int[] getFinalStrands() {
+        return WalkSweep.finalStrands(this.strandCount, this.bridgeIndex.read().getBridges());
+    }
+
+    /**
+     * Detaches the solver, the following changes of the bridges won't be tracked.
+     */
+    public void detachSolver() {
+        this.solver = null;
+    }
+
+    private void updateSolverFavorites() {
+        if (this.solver != null)
+            this.solver.setFavoriteStrands(this.getFavoriteStrands());
+    }
+
     /**
      * Prints the favorite strands of the spider.
      */
@@ -716,11 +1102,16 @@ public class SpiderWeb {
 
         String info;
 
-        if (favoriteStrand == -1) {
+        if (this.favoriteStrands.read().isEmpty()) {
             info = "There is not a favorite Strand yet";
         } else {
-            info = "The spider has the following favorite strands:\n" +
-                    String.format("Favorite Strand: (%d):", this.favoriteStrand);
+            StringBuilder favorites = new StringBuilder("The spider has the following favorite strands:");
+
+            for (int favoriteStrand : this.favoriteStrands.read()) {
+                favorites.append(String.format("\nFavorite Strand: (%d)", favoriteStrand));
+            }
+
+            info = favorites.toString();
         }
         MessageHandler.showInfo(info);
 
@@ -731,15 +1122,15 @@ public class SpiderWeb {
      * Clears the bridges used by the spider.
      */
     public void resetUsedBridges() {
-        usedBridges.clear();
+        this.usedBridges.write().clear();
     }
 
     /**
      * Finishes the spider web application, hides the canvas, and shows a closing message.
      */
     public void finish() {
-        Canvas canvas = Canvas.getCanvas();
-        canvas.setVisible(false);
+        Renderer renderer = Renderers.current();
+        renderer.setVisible(false);
 
         MessageHandler.showInfo("The spider web is finished");
         lastActionWasOk = true;
@@ -762,7 +1153,7 @@ public class SpiderWeb {
     public void respawnSpider() {
         this.spider.respawn();
 
-        this.spider.setPosition(new Point(Canvas.CENTER));
+        this.spider.setPosition(this.viewport.getCenter());
         this.currentStrand = -1;
         this.spider.resetTraceLines();
 
@@ -775,25 +1166,44 @@ public class SpiderWeb {
         return lastActionWasOk;
     }
 
-    public ArrayList<Strand> getStrands() {
-        return strands;
+    /**
+     * Gets the strands of the spider web. The list may be shared with snapshots, so it must not be modified.
+     *
+     * @return The strands.
+     */
+    public List<Strand> getStrands() {
+        return this.strands.read();
     }
 
-    public ArrayList<Bridge> getBridges() {
-        return bridges;
+    /**
+     * Gets the bridges of the spider web. The list may be shared with snapshots, so it must not be modified.
+     *
+     * @return The bridges.
+     */
+    public List<Bridge> getBridges() {
+        return this.bridgeIndex.read().getBridges();
     }
 
     public int[][] getBridgesAsConsoleInput() {
-        int[][] bridges = new int[this.bridges.size()][2];
-        for (int i = 0; i < this.bridges.size(); i++) {
-            bridges[i][0] = this.bridges.get(i).getDistance();
-            bridges[i][1] = this.bridges.get(i).getInitialStrand();
+        int[][] bridges = new int[this.bridgeIndex.read().size()][];
+        int i = 0;
+        for (Bridge bridge : this.bridgeIndex.read().getBridges()) {
+            bridges[i++] = new int[]{bridge.getDistance(), bridge.getInitialStrand()};
         }
         return bridges;
     }
 
-    public ArrayList<Bridge> getUsedBridges() {
-        return usedBridges;
+    /**
+     * Gets the bridges used by the spider of the spider web. The list may be shared with snapshots, so it must not be modified.
+     *
+     * @return The bridges used by the spider.
+     */
+    public List<Bridge> getUsedBridges() {
+        return this.usedBridges.read();
+    }
+
+    public Viewport getViewport() {
+        return viewport;
     }
 
     public Spider getSpider() {
@@ -805,7 +1215,11 @@ public class SpiderWeb {
     }
 
     public int getFavoriteStrand() {
-        return this.favoriteStrand;
+        return this.favoriteStrands.read().isEmpty() ? -1 : this.favoriteStrands.read().first();
+    }
+
+    public int[] getFavoriteStrands() {
+        return this.favoriteStrands.read().stream().mapToInt(Integer::intValue).toArray();
     }
 
     public int getRadio() {
@@ -830,23 +1244,21 @@ public class SpiderWeb {
 
     public void setStrandType(int strand, String color, Strand.Types type) {
 
-        if (strand < 0 || strand > strands.size() - 1) {
+        if (strand < 0 || strand > this.strands.read().size() - 1) {
             MessageHandler.showError("Favorite Strand out of Range");
             lastActionWasOk = false;
             return;
         }
 
-        Strand favoriteStrand = this.strands.get(strand);
-
         switch (type) {
             case NORMAL:
-                this.strands.set(strand, new NormalStrand(Canvas.CENTER, favoriteStrand.getEnd(), color));
+                this.strands.write().set(strand, new NormalStrand(color));
                 break;
             case KILLER:
-                this.strands.set(strand, new KillerStrand(Canvas.CENTER, favoriteStrand.getEnd(), color));
+                this.strands.write().set(strand, new KillerStrand(color));
                 break;
             case BOUNCY:
-                this.strands.set(strand, new BouncyStrand(Canvas.CENTER, favoriteStrand.getEnd(), color));
+                this.strands.write().set(strand, new BouncyStrand(color));
                 break;
             default:
                 // TODO: Handle invalid Strand type
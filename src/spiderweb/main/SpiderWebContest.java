@@ -1,277 +1,268 @@
 package spiderweb.main;
 
 import spiderweb.bridges.Bridge;
+import spiderweb.bridges.BridgeSet;
 import spiderweb.bridges.NormalBridge;
+import spiderweb.contest.BridgePlanner;
+import spiderweb.contest.SolverWorkspace;
+import spiderweb.contest.WalkIndex;
+import spiderweb.contest.WalkSweep;
+import spiderweb.metrics.Metrics;
 import utilities.MessageHandler;
 
-import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Objects;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
 public class SpiderWebContest {
 
     private static final int GAP = 5;
-    private static boolean SOLUTION_FOUND = false;
 
-    private int nextIndex(int next, int current, int size) {
-        return (next + current) % size;
-    }
-
-    private int previousIndex(int next, int current, int size) {
-        return (next - current + size) % size;
-    }
-
-    private void update(int[] strandCounts, int first, int second) {
-        first += 1;
+    private final ThreadLocal<SolverWorkspace> workspace = ThreadLocal.withInitial(SolverWorkspace::new);
+    private volatile CachedWalkIndex walkIndex;
+
+    /**
+     * Solves the spider walk problem, the answer of each strand is the minimum number of bridges
+     * that must be added so that the spider starting on it ends on the favorite strand.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @return The answer of each strand.
+     */
+    public ArrayList<Integer> solve(int strandCount, int favoriteStrand, int[][] bridges) {
+        long start = System.nanoTime();
+        ArrayList<Integer> result = new ArrayList<>(strandCount);
+        this.workspace.get().solve(strandCount, favoriteStrand, bridges, result::add);
+        Metrics.contest().recordSolve(System.nanoTime() - start);
 
-        while (first < strandCounts.length) {
-            strandCounts[first] += second;
-            first += first & -first;
-        }
+        return result;
     }
 
-    private int queryCounter(int[] strandCounts, int x) {
-        int res = 0;
-        x += 1;
-
-        while (x > 0) {
-            res += strandCounts[x];
-            x -= x & -x;
+    /**
+     * Solves the spider walk problem for bridges stored by columns.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges stored by columns.
+     * @return The answer of each strand.
+     */
+    public ArrayList<Integer> solve(int strandCount, int favoriteStrand, BridgeSet bridges) {
+        long start = System.nanoTime();
+        int[] answers = this.workspace.get().solve(strandCount, favoriteStrand, bridges);
+        Metrics.contest().recordSolve(System.nanoTime() - start);
+        ArrayList<Integer> result = new ArrayList<>(strandCount);
+
+        for (int answer : answers) {
+            result.add(answer);
         }
 
-        return res;
+        return result;
     }
 
-    private void processUpdates(int[] strandCounts, int left, int right, int x) {
-        update(strandCounts, left, x);
-        update(strandCounts, right + 1, -x);
+    /**
+     * Solves the spider walk problem writing the answers in the given array, it doesn't allocate
+     * once the workspace of this contest has grown to the size of the input on the calling thread.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @param answers        The destination array, its length must be at least strandCount.
+     */
+    public void solve(int strandCount, int favoriteStrand, int[][] bridges, int[] answers) {
+        long start = System.nanoTime();
+        this.workspace.get().solve(strandCount, favoriteStrand, bridges, answers);
+        Metrics.contest().recordSolve(System.nanoTime() - start);
     }
 
-    private void processWork(int[] strandCounts, int left, int right, int size) {
-        if (left <= right) {
-            processUpdates(strandCounts, left, right, -1);
-        } else {
-            processUpdates(strandCounts, left, size - 1, -1);
-            processUpdates(strandCounts, 0, right, -1);
-        }
+    /**
+     * Solves the spider walk problem sending the answer of each strand to the consumer.
+     *
+     * @param strandCount    The number of strands in the spider web.
+     * @param favoriteStrand The favorite strand of the spider.
+     * @param bridges        The bridges in the form {distance, strand}.
+     * @param consumer       The consumer that receives the answers in strand order.
+     */
+    public void solve(int strandCount, int favoriteStrand, int[][] bridges, IntConsumer consumer) {
+        long start = System.nanoTime();
+        this.workspace.get().solve(strandCount, favoriteStrand, bridges, consumer);
+        Metrics.contest().recordSolve(System.nanoTime() - start);
     }
 
-    private SpiderWeb copySpiderWeb(SpiderWeb spiderWeb) {
-        SpiderWeb clonedSpiderWeb;
-        try {
-            clonedSpiderWeb = new SpiderWeb(spiderWeb.getStrandCount(), spiderWeb.getFavoriteStrand(), spiderWeb.getBridgesAsConsoleInput());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-
-        return clonedSpiderWeb;
+    /**
+     * Solves the spider walk problem for several favorite strands in a single pass, the answer of each
+     * strand is the minimum number of bridges needed to end on any of the favorites.
+     *
+     * @param strandCount     The number of strands in the spider web.
+     * @param favoriteStrands The favorite strands of the spider.
+     * @param bridges         The bridges in the form {distance, strand}.
+     * @return The answer of each strand.
+     */
+    public int[] solve(int strandCount, int[] favoriteStrands, int[][] bridges) {
+        long start = System.nanoTime();
+        int[] answers = this.workspace.get().solve(strandCount, favoriteStrands, bridges);
+        Metrics.contest().recordSolve(System.nanoTime() - start);
+
+        return answers;
     }
 
-    public ArrayList<Integer> solve(int strandCount, int favoriteStrand, int[][] bridges) {
-        int[] strandCounts = new int[strandCount + 1];
-
-        ArrayList<int[]> lines = new ArrayList<>();
+    /**
+     * Answers many (start, favorite) queries over the same bridges. The bridges are sorted once, then
+     * swept once per distinct favorite strand or once per distinct start strand, whichever the queries
+     * have fewer of, so the cost is that many full sweeps and not one per query.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges in the form {distance, strand}.
+     * @param queries     The queries in the form {startStrand, favoriteStrand}.
+     * @return The answer of each query, in the same order as the queries.
+     */
+    public int[] solvePairs(int strandCount, int[][] bridges, int[][] queries) {
+        long start = System.nanoTime();
+        int[] answers = this.workspace.get().solvePairs(strandCount, bridges, queries);
+        Metrics.contest().recordSolve(System.nanoTime() - start);
+
+        return answers;
+    }
 
-        for (int[] bridge : bridges) {
-            int d = bridge[0];
-            int t = bridge[1];
+    /**
+     * Simulates the walk of the spider from the center over the given bridges. The walk index of the
+     * bridges is kept until they change, so repeated walks over the same bridges don't rebuild it.
+     *
+     * @param initialStrand The strand where the spider starts.
+     * @param bridges       The bridges of the spider web.
+     * @return The strand where the spider ends.
+     */
+    public int getFinalStrandBySimulatingMovement(int initialStrand, List<Bridge> bridges) {
+        return this.getFinalStrandBySimulatingMovement(initialStrand, this.walkIndexOf(bridges));
+    }
 
-            lines.add(new int[]{d, t});
-        }
+    /**
+     * Simulates the walk of the spider from the center using an already built walk index.
+     *
+     * @param initialStrand The strand where the spider starts.
+     * @param walkIndex     The walk index of the bridges.
+     * @return The strand where the spider ends.
+     */
+    public int getFinalStrandBySimulatingMovement(int initialStrand, WalkIndex walkIndex) {
+        return walkIndex.walk(initialStrand);
+    }
 
-        for (int i = 0; i < strandCount; i++) {
-            processUpdates(strandCounts, i, i, Math.min(Math.abs(favoriteStrand - i), strandCount - Math.abs(favoriteStrand - i)));
-        }
+    /**
+     * Simulates the walk of the spider from every strand at once, in a single sweep over the bridges.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges of the spider web.
+     * @return The final strand of each initial strand.
+     */
+    public int[] getFinalStrandsBySimulatingMovement(int strandCount, List<Bridge> bridges) {
+        return WalkSweep.finalStrands(strandCount, bridges);
+    }
 
-        lines.sort((a, b) -> Integer.compare(b[0], a[0]));
+    /**
+     * Simulates the walk of the spider from every strand at once over the contest bridges.
+     *
+     * @param strandCount The number of strands in the spider web.
+     * @param bridges     The bridges in the form {distance, strand}.
+     * @return The final strand of each initial strand.
+     */
+    public int[] getFinalStrandsBySimulatingMovement(int strandCount, int[][] bridges) {
+        return WalkSweep.finalStrands(strandCount, BridgeSet.of(bridges));
+    }
 
-        for (int[] line : lines) {
-            int target = line[1];
-            int nx = nextIndex(target, 1, strandCount);
-            int v1 = queryCounter(strandCounts, target);
-            int v2 = queryCounter(strandCounts, nx);
+    /**
+     * Gets the walk index of the bridges, reusing the last one if the bridges are the same objects
+     * in the same order.
+     */
+    private WalkIndex walkIndexOf(List<Bridge> bridges) {
+        CachedWalkIndex cached = this.walkIndex;
 
-            assert Math.abs(v1 - v2) <= 1;
+        if (cached != null && cached.bridges.length == bridges.size()) {
+            boolean unchanged = true;
+            int i = 0;
 
-            if (v1 == v2) {
-                continue;
+            for (Iterator<Bridge> iterator = bridges.iterator(); iterator.hasNext() && unchanged; i++) {
+                unchanged = cached.bridges[i] == iterator.next();
             }
 
-            if (v1 > v2) {
-                processUpdates(strandCounts, target, target, -1);
-                int current = 0;
-
-                for (int i = 18; i >= 0; i--) {
-                    if (current + (1 << i) <= strandCount - 2 && queryCounter(strandCounts, previousIndex(target, current + (1 << i), strandCount)) == v1 + current + (1 << i)) {
-                        current += 1 << i;
-                    }
-                }
-
-                if (current != 0) {
-                    processWork(strandCounts, previousIndex(target, current, strandCount), previousIndex(target, 1, strandCount), strandCount);
-                }
-
-                if (queryCounter(strandCounts, nextIndex(nx, 1, strandCount)) != v2 - 1) {
-                    processUpdates(strandCounts, nx, nx, 1);
-                }
-            } else {
-                processUpdates(strandCounts, nx, nx, -1);
-                int current = 0;
-
-                for (int i = 18; i >= 0; i--) {
-                    if (current + (1 << i) <= strandCount - 2 && queryCounter(strandCounts, nextIndex(nx, current + (1 << i), strandCount)) == v2 + current + (1 << i)) {
-                        current += 1 << i;
-                    }
-                }
-
-                if (current != 0) {
-                    processWork(strandCounts, nextIndex(nx, 1, strandCount), nextIndex(nx, current, strandCount), strandCount);
-                }
-
-                if (queryCounter(strandCounts, previousIndex(target, 1, strandCount)) != v1 - 1) {
-                    processUpdates(strandCounts, target, target, 1);
-                }
+            if (unchanged) {
+                return cached.index;
             }
         }
 
-        ArrayList<Integer> result = new ArrayList<>();
-
-        for (int i = 0; i < strandCount; i++) {
-            result.add(queryCounter(strandCounts, i));
-        }
+        cached = new CachedWalkIndex(bridges.toArray(new Bridge[0]), WalkIndex.of(bridges));
+        this.walkIndex = cached;
 
-        return result;
+        return cached.index;
     }
 
-    public int getFinalStrandBySimulatingMovement(int initialStrand, ArrayList<Bridge> bridges) {
-        ArrayList<Bridge> localBridges = new ArrayList<>(bridges);
-        localBridges.sort(Comparator.comparingInt(Bridge::getDistance));
-
-        boolean flag = true;
-        int currentStrand = initialStrand;
-        int currentDistance = 0;
-
-        while (flag) {
-            int candidates = 0;
-
-            for (Bridge bridge : localBridges) {
-                if ((currentStrand != bridge.getInitialStrand() && currentStrand != bridge.getFinalStrand()) || currentDistance >= bridge.getDistance()) {
-                    continue;
-                }
-                candidates++;
-
-                if (currentStrand == bridge.getFinalStrand()) {
-                    currentStrand = bridge.getInitialStrand();
-                } else {
-                    currentStrand = bridge.getFinalStrand();
-                }
-
-                currentDistance = bridge.getDistance();
-                break;
-            }
-
-            flag = candidates != 0;
-        }
-
-        return currentStrand;
-    }
-
-    private Bridge buildBridge(int distance, int initialStrand, int finalStrand, SpiderWeb spiderWeb) {
+    private Bridge buildBridge(int distance, int initialStrand, int finalStrand) {
         String bridgeColor = String.format("%s-%s", initialStrand, distance);
-        Point initialPoint = spiderWeb.getStrands().get(initialStrand).getScaledPoint((double) distance / spiderWeb.getRadio());
-        Point finalPoint = spiderWeb.getStrands().get(finalStrand).getScaledPoint((double) distance / spiderWeb.getRadio());
 
-        return new NormalBridge(distance, initialStrand, finalStrand, initialPoint, finalPoint, bridgeColor);
+        return new NormalBridge(distance, initialStrand, finalStrand, bridgeColor);
         //All Bridges going to be Normals for simulate
     }
 
+    /**
+     * Searches the bridges that must be added so that the spider starting on the initial strand ends
+     * on the final strand. The search runs on the common fork/join pool and stops as soon as one of its
+     * branches finds a solution, each call has its own search so several calls can run at the same time.
+     *
+     * @param initialStrand     The strand where the spider starts.
+     * @param finalStrand       The strand where the spider must end.
+     * @param remainingAttempts The maximum number of bridges that can be added.
+     * @param builtBridges      The bridges already chosen, they are kept at the start of the result.
+     * @param spiderWeb         The spider web with the current bridges.
+     * @return The chosen bridges followed by the new ones, or null if there is no solution.
+     */
     public ArrayList<Bridge> buildBridges(int initialStrand, int finalStrand, int remainingAttempts, ArrayList<Bridge> builtBridges, SpiderWeb spiderWeb) {
+        long start = System.nanoTime();
+        BridgePlanner planner = new BridgePlanner(spiderWeb.getStrandCount(), spiderWeb.getRadio(), GAP);
+        int[][] plan = planner.plan(spiderWeb.getBridgesAsConsoleInput(), initialStrand, finalStrand, remainingAttempts, ForkJoinPool.commonPool());
+        Metrics.contest().recordBuildBridges(System.nanoTime() - start);
 
-        if (SOLUTION_FOUND) {
+        if (plan == null) {
             return null;
         }
 
-        if (remainingAttempts == 0) {
-            if (getFinalStrandBySimulatingMovement(initialStrand, spiderWeb.getBridges()) == finalStrand) {
-                SOLUTION_FOUND = true;
-                return builtBridges;
-            }
+        ArrayList<Bridge> result = new ArrayList<>(builtBridges);
 
-            return null;
+        for (int[] bridge : plan) {
+            int newBridgeFinalStrand = (bridge[1] + 1) % spiderWeb.getStrandCount();
+            result.add(this.buildBridge(bridge[0], bridge[1], newBridgeFinalStrand));
         }
 
-        ArrayList<Bridge> currentBridges = spiderWeb.getBridges();
-        ArrayList<ArrayList<Bridge>> results = new ArrayList<>();
-
-        if (currentBridges.stream().noneMatch(bridge -> bridge.getInitialStrand() == finalStrand || bridge.getFinalStrand() == finalStrand)) {
-
-            int distance = spiderWeb.getRadio();
-            int newBridgeInitialStrand = 0;
-            int newBridgeFinalStrand = 0;
-
-            for (int index = 0; index < 2; index++) {
-                distance -= GAP;
-
-                if (index < 1) {
-                    newBridgeFinalStrand = finalStrand;
-                    newBridgeInitialStrand = newBridgeFinalStrand == 0 ? spiderWeb.getStrandCount() - 1 : newBridgeFinalStrand - 1;
-                } else {
-                    newBridgeInitialStrand = finalStrand;
-                    newBridgeFinalStrand = (newBridgeInitialStrand + 1) % spiderWeb.getStrandCount();
-                }
-            }
-
-            // TODO: Remove duplication code with $1
-            Bridge newBridge = this.buildBridge(distance, newBridgeInitialStrand, newBridgeFinalStrand, spiderWeb);
-
-            ArrayList<Bridge> newBridges = new ArrayList<>(builtBridges);
-            newBridges.add(newBridge);
+        return result;
+    }
 
-            SpiderWeb clonedSpiderWeb = copySpiderWeb(spiderWeb);
-            clonedSpiderWeb.addBridge(newBridge.getColor(), distance, newBridgeInitialStrand);
+    /**
+     * Builds the bridges that the solver records while solving, they need no search.
+     *
+     * @return The bridges to add, or null if they don't fit between the existing bridges.
+     */
+    private ArrayList<Bridge> buildWitness(int initialStrand, int favoriteStrand, BridgeSet bridges, SpiderWeb spiderWeb) {
+        int[][] witness = this.workspace.get().witness(spiderWeb.getStrandCount(), favoriteStrand, bridges, initialStrand, spiderWeb.getRadio());
 
-            ArrayList<Bridge> result = buildBridges(initialStrand, finalStrand, remainingAttempts - 1, newBridges, clonedSpiderWeb);
-            results.add(result);
+        if (witness == null) {
+            return null;
         }
 
-        for (Bridge bridge : currentBridges) {
-            for (int index = 0; index < 6; index++) {
-                int distance = bridge.getDistance() + (index % 2 == 0 ? -GAP : +GAP);
-                int newBridgeInitialStrand;
-                int newBridgeFinalStrand;
-
-                if (index < 2) {
-                    newBridgeInitialStrand = bridge.getInitialStrand();
-                    newBridgeFinalStrand = bridge.getFinalStrand();
-                } else if (index < 4) {
-                    newBridgeFinalStrand = bridge.getInitialStrand();
-                    newBridgeInitialStrand = newBridgeFinalStrand == 0 ? spiderWeb.getStrandCount() - 1 : newBridgeFinalStrand - 1;
-                } else {
-                    newBridgeInitialStrand = bridge.getFinalStrand();
-                    newBridgeFinalStrand = (newBridgeInitialStrand + 1) % spiderWeb.getStrandCount();
-                }
-
-                // TODO: Remove duplication code with $1
-                Bridge newBridge = this.buildBridge(distance, newBridgeInitialStrand, newBridgeFinalStrand, spiderWeb);
-
-                ArrayList<Bridge> newBridges = new ArrayList<>(builtBridges);
-                newBridges.add(newBridge);
-
-                SpiderWeb clonedSpiderWeb = copySpiderWeb(spiderWeb);
-                clonedSpiderWeb.addBridge(newBridge.getColor(), distance, newBridgeInitialStrand);
-
-                ArrayList<Bridge> result = buildBridges(initialStrand, finalStrand, remainingAttempts - 1, newBridges, clonedSpiderWeb);
-                results.add(result);
-            }
+        ArrayList<Bridge> result = new ArrayList<>(witness.length);
+
+        for (int[] bridge : witness) {
+            int finalStrand = (bridge[1] + 1) % spiderWeb.getStrandCount();
+            result.add(this.buildBridge(bridge[0], bridge[1], finalStrand));
         }
 
-        return results.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        return result;
     }
 
     public SpiderWeb simulate(int strandCount, int favoriteStrand, int[][] bridges, int initialStrand) throws Exception {
-        SOLUTION_FOUND = false;
+        return this.simulate(strandCount, favoriteStrand, BridgeSet.of(bridges), initialStrand);
+    }
 
+    public SpiderWeb simulate(int strandCount, int favoriteStrand, BridgeSet bridges, int initialStrand) throws Exception {
         SpiderWeb spiderWeb = new SpiderWeb(strandCount, favoriteStrand, bridges);
 
         if (SpiderWeb.TEST_MODE)
@@ -279,8 +270,13 @@ public class SpiderWebContest {
         else
             spiderWeb.makeVisible();
 
-        ArrayList<Integer> solution = solve(strandCount, favoriteStrand, bridges);
-        ArrayList<Bridge> result = buildBridges(initialStrand, favoriteStrand, solution.get(initialStrand), new ArrayList<>(), spiderWeb);
+        ArrayList<Bridge> result = this.buildWitness(initialStrand, favoriteStrand, bridges, spiderWeb);
+
+        if (result == null) {
+            // The bridges of the witness didn't fit between the existing ones, search them instead
+            int[] solution = this.workspace.get().solve(strandCount, favoriteStrand, bridges);
+            result = buildBridges(initialStrand, favoriteStrand, solution[initialStrand], new ArrayList<>(), spiderWeb);
+        }
 
         if (result == null) {
             MessageHandler.showError("No solution found");
@@ -288,7 +284,7 @@ public class SpiderWebContest {
         }
 
         if (!SpiderWeb.TEST_MODE)
-            MessageHandler.showInfo("Solution found", "The solution has been found and will start when this dialog is closed.");
+            MessageHandler.showInfo("Solution found", "The solution has been found, the spider is walking to the favorite strand.");
 
         for (Bridge bridge : result) {
             spiderWeb.addBridge(bridge.getColor(), bridge.getDistance(), bridge.getInitialStrand());
@@ -298,4 +294,18 @@ public class SpiderWebContest {
 
         return spiderWeb;
     }
+
+    /**
+     * A walk index and the bridges it was built from, replaced as a whole so that threads sharing the
+     * contest always see a matching pair.
+     */
+    private static final class CachedWalkIndex {
+        private final Bridge[] bridges;
+        private final WalkIndex index;
+
+        private CachedWalkIndex(Bridge[] bridges, WalkIndex index) {
+            this.bridges = bridges;
+            this.index = index;
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package spiderweb.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a frame rendered by the canvas.
+ */
+@Name("spiderweb.CanvasFrame")
+@Label("Canvas Frame")
+@Category({"SpiderWeb", "Canvas"})
+@Description("A frame rendered by the canvas")
+public class CanvasFrameEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(CanvasFrameEvent.class);
+
+    @Label("Shapes")
+    private int shapeCount;
+
+    @Label("Layers Redrawn")
+    private int layersRedrawn;
+
+    /**
+     * Starts timing a frame, only if a recording wants this event.
+     *
+     * @return The event, or null if no recording wants it.
+     */
+    public static CanvasFrameEvent beginIfRecording() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+
+        CanvasFrameEvent event = new CanvasFrameEvent();
+        event.begin();
+
+        return event;
+    }
+
+    /**
+     * Commits an event started with beginIfRecording, it does nothing if the event is null.
+     *
+     * @param event         The event.
+     * @param shapeCount    The number of shapes on the canvas.
+     * @param layersRedrawn The number of layers rasterized again.
+     */
+    public static void commit(CanvasFrameEvent event, int shapeCount, int layersRedrawn) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.shapeCount = shapeCount;
+            event.layersRedrawn = layersRedrawn;
+            event.commit();
+        }
+    }
+}
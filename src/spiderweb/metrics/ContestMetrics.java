@@ -0,0 +1,40 @@
+package spiderweb.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times the solves and the bridge searches of the contest, and counts the states the searches explore.
+ */
+public class ContestMetrics implements ContestMetricsMXBean {
+
+    private final LatencyHistogram solveLatency = new LatencyHistogram();
+    private final LatencyHistogram buildBridgesLatency = new LatencyHistogram();
+    private final LongAdder nodesExplored = new LongAdder();
+
+    public void recordSolve(long nanos) {
+        this.solveLatency.record(nanos);
+    }
+
+    public void recordBuildBridges(long nanos) {
+        this.buildBridgesLatency.record(nanos);
+    }
+
+    public void recordNodeExplored() {
+        this.nodesExplored.increment();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getSolveLatency() {
+        return solveLatency.snapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getBuildBridgesLatency() {
+        return buildBridgesLatency.snapshot();
+    }
+
+    @Override
+    public long getNodesExplored() {
+        return nodesExplored.sum();
+    }
+}
@@ -0,0 +1,13 @@
+package spiderweb.metrics;
+
+/**
+ * The work of the contest solvers, seen through JMX.
+ */
+public interface ContestMetricsMXBean {
+
+    LatencyHistogram.Snapshot getSolveLatency();
+
+    LatencyHistogram.Snapshot getBuildBridgesLatency();
+
+    long getNodesExplored();
+}
@@ -0,0 +1,135 @@
+package spiderweb.metrics;
+
+import javax.management.ConstructorParameters;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds with one bucket per power of two. Every bucket is a
+ * {@link LongAdder}, so threads recording at the same time don't contend on a single counter.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets;
+    private final LongAdder total;
+    private final LongAccumulator max;
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative durations count as 0.
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+
+        this.buckets[bucketOf(duration)].increment();
+        this.total.add(duration);
+        this.max.accumulate(duration);
+    }
+
+    /**
+     * Takes a snapshot of the histogram, the durations recorded while it is taken may be missing.
+     *
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+
+        long mean = count == 0 ? 0 : this.total.sum() / count;
+
+        return new Snapshot(count, mean, percentile(counts, count, 0.5), percentile(counts, count, 0.99), this.max.get(), counts);
+    }
+
+    /**
+     * Gets the upper bound of the bucket that holds the given fraction of the durations.
+     */
+    private static long percentile(long[] counts, long count, double fraction) {
+        long target = (long) Math.ceil(count * fraction);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+
+            if (seen >= target && seen > 0) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Gets the bucket of a duration, bucket i holds the durations from 2^i to 2^(i+1) - 1, and
+     * bucket 0 also holds 0.
+     */
+    private static int bucketOf(long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * The state of a histogram at some moment. The percentiles are the upper bound of their bucket.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long meanNanos;
+        private final long medianNanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+        private final long[] buckets;
+
+        @ConstructorParameters({"count", "meanNanos", "medianNanos", "p99Nanos", "maxNanos", "buckets"})
+        public Snapshot(long count, long meanNanos, long medianNanos, long p99Nanos, long maxNanos, long[] buckets) {
+            this.count = count;
+            this.meanNanos = meanNanos;
+            this.medianNanos = medianNanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.buckets = buckets;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package spiderweb.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Holds the metrics of the application, registered on the platform MBean server under the
+ * 'spiderweb' domain the first time they are used.
+ */
+public abstract class Metrics {
+
+    private static final WebMetrics WEB = new WebMetrics();
+    private static final ContestMetrics CONTEST = new ContestMetrics();
+    private static final RenderMetrics RENDER = new RenderMetrics();
+
+    static {
+        register("spiderweb:type=Web", WEB);
+        register("spiderweb:type=Contest", CONTEST);
+        register("spiderweb:type=Render", RENDER);
+    }
+
+    public static WebMetrics web() {
+        return WEB;
+    }
+
+    public static ContestMetrics contest() {
+        return CONTEST;
+    }
+
+    public static RenderMetrics render() {
+        return RENDER;
+    }
+
+    private static void register(String name, Object metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metrics, objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            // The metrics keep counting, they just can't be seen through JMX
+        }
+    }
+}
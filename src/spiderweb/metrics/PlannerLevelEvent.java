@@ -0,0 +1,75 @@
+package spiderweb.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A flight recorder event for one depth of a search of the bridge planner. The search is best-first,
+ * so the depths are mixed in time: the event lasts the whole search, and tells how many states were
+ * expanded at its depth and how long expanding them took.
+ */
+@Name("spiderweb.PlannerLevel")
+@Label("Planner Level")
+@Category({"SpiderWeb", "Contest"})
+@Description("The states the bridge planner expanded at one depth of a search")
+public class PlannerLevelEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(PlannerLevelEvent.class);
+
+    @Label("Depth")
+    private int depth;
+
+    @Label("States Expanded")
+    private long statesExpanded;
+
+    @Label("Expand Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long expandNanos;
+
+    /**
+     * Starts timing a search, with one event for each depth, only if a recording wants this event.
+     *
+     * @param maxDepth The deepest depth the search can reach.
+     * @return The events, or null if no recording wants them.
+     */
+    public static PlannerLevelEvent[] beginLevelsIfRecording(int maxDepth) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+
+        PlannerLevelEvent[] events = new PlannerLevelEvent[maxDepth + 1];
+
+        for (int depth = 0; depth <= maxDepth; depth++) {
+            events[depth] = new PlannerLevelEvent();
+            events[depth].begin();
+        }
+
+        return events;
+    }
+
+    /**
+     * Commits the events started with beginLevelsIfRecording for the depths where a state was expanded.
+     *
+     * @param events         The events, one for each depth.
+     * @param statesExpanded The number of states expanded at each depth.
+     * @param expandNanos    The time spent expanding the states of each depth.
+     */
+    public static void commitLevels(PlannerLevelEvent[] events, long[] statesExpanded, long[] expandNanos) {
+        for (int depth = 0; depth < events.length; depth++) {
+            PlannerLevelEvent event = events[depth];
+            event.end();
+
+            if (statesExpanded[depth] > 0 && event.shouldCommit()) {
+                event.depth = depth;
+                event.statesExpanded = statesExpanded[depth];
+                event.expandNanos = expandNanos[depth];
+                event.commit();
+            }
+        }
+    }
+}
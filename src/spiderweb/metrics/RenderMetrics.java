@@ -0,0 +1,38 @@
+package spiderweb.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the frames the canvas renders and the layers it rasterizes again.
+ */
+public class RenderMetrics implements RenderMetricsMXBean {
+
+    private final LongAdder layerRedraws = new LongAdder();
+    private final LatencyHistogram frameLatency = new LatencyHistogram();
+
+    /**
+     * Records a rendered frame.
+     *
+     * @param nanos        The time the frame took.
+     * @param layerRedraws The number of layers rasterized again.
+     */
+    public void recordFrame(long nanos, int layerRedraws) {
+        this.layerRedraws.add(layerRedraws);
+        this.frameLatency.record(nanos);
+    }
+
+    @Override
+    public long getFrames() {
+        return frameLatency.snapshot().getCount();
+    }
+
+    @Override
+    public long getLayerRedraws() {
+        return layerRedraws.sum();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getFrameLatency() {
+        return frameLatency.snapshot();
+    }
+}
@@ -0,0 +1,13 @@
+package spiderweb.metrics;
+
+/**
+ * The drawing of the canvas, seen through JMX.
+ */
+public interface RenderMetricsMXBean {
+
+    long getFrames();
+
+    long getLayerRedraws();
+
+    LatencyHistogram.Snapshot getFrameLatency();
+}
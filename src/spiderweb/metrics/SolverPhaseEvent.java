@@ -0,0 +1,69 @@
+package spiderweb.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for one phase of the contest solver: sorting the bridges, initializing the
+ * counts of the strands or sweeping the bridges.
+ */
+@Name("spiderweb.SolverPhase")
+@Label("Solver Phase")
+@Category({"SpiderWeb", "Contest"})
+@Description("One phase of the solver of the spider walk problem")
+public class SolverPhaseEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(SolverPhaseEvent.class);
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Strands")
+    private int strandCount;
+
+    @Label("Bridges")
+    private int bridgeCount;
+
+    /**
+     * Starts timing a phase, only if a recording wants this event.
+     *
+     * @return The event, or null if no recording wants it.
+     */
+    public static SolverPhaseEvent beginIfRecording() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+
+        SolverPhaseEvent event = new SolverPhaseEvent();
+        event.begin();
+
+        return event;
+    }
+
+    /**
+     * Commits an event started with beginIfRecording, it does nothing if the event is null.
+     *
+     * @param event       The event.
+     * @param phase       The name of the phase.
+     * @param strandCount The number of strands.
+     * @param bridgeCount The number of bridges.
+     */
+    public static void commit(SolverPhaseEvent event, String phase, int strandCount, int bridgeCount) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.strandCount = strandCount;
+            event.bridgeCount = bridgeCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package spiderweb.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the spider crossing one bridge, including the actions it triggers.
+ */
+@Name("spiderweb.WalkHop")
+@Label("Walk Hop")
+@Category({"SpiderWeb", "Walk"})
+@Description("The spider crossing one bridge of the spider web")
+public class WalkHopEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(WalkHopEvent.class);
+
+    @Label("From Strand")
+    private int fromStrand;
+
+    @Label("To Strand")
+    private int toStrand;
+
+    @Label("Distance")
+    private int distance;
+
+    @Label("Bridge Type")
+    private String bridgeType;
+
+    /**
+     * Starts timing a hop, only if a recording wants this event.
+     *
+     * @return The event, or null if no recording wants it.
+     */
+    public static WalkHopEvent beginIfRecording() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+
+        WalkHopEvent event = new WalkHopEvent();
+        event.begin();
+
+        return event;
+    }
+
+    /**
+     * Commits an event started with beginIfRecording, it does nothing if the event is null.
+     *
+     * @param event      The event.
+     * @param fromStrand The strand where the spider was.
+     * @param toStrand   The strand where the spider is.
+     * @param distance   The distance of the bridge.
+     * @param bridgeType The type of the bridge.
+     */
+    public static void commit(WalkHopEvent event, int fromStrand, int toStrand, int distance, String bridgeType) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.fromStrand = fromStrand;
+            event.toStrand = toStrand;
+            event.distance = distance;
+            event.bridgeType = bridgeType;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package spiderweb.metrics;
+
+import spiderweb.bridges.Bridge;
+import spiderweb.strands.Strand;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the walks of the spider, the actions of the bridges and strands it triggers, and the bridges
+ * added and removed.
+ */
+public class WebMetrics implements WebMetricsMXBean {
+
+    private final LongAdder walks = new LongAdder();
+    private final LongAdder bridgesCrossed = new LongAdder();
+    private final LatencyHistogram walkLatency = new LatencyHistogram();
+    private final EnumMap<Bridge.Types, LongAdder> bridgeActions = counters(Bridge.Types.class);
+    private final EnumMap<Strand.Types, LongAdder> strandActions = counters(Strand.Types.class);
+    private final LongAdder bridgesAdded = new LongAdder();
+    private final LongAdder bridgesRejected = new LongAdder();
+    private final LongAdder bridgesRemoved = new LongAdder();
+    private final LatencyHistogram validationLatency = new LatencyHistogram();
+
+    /**
+     * Records a walk of the spider.
+     *
+     * @param nanos          The time the walk took.
+     * @param bridgesCrossed The number of bridges the spider crossed.
+     */
+    public void recordWalk(long nanos, int bridgesCrossed) {
+        this.walks.increment();
+        this.bridgesCrossed.add(bridgesCrossed);
+        this.walkLatency.record(nanos);
+    }
+
+    public void recordBridgeAction(Bridge.Types type) {
+        this.bridgeActions.get(type).increment();
+    }
+
+    public void recordStrandAction(Strand.Types type) {
+        this.strandActions.get(type).increment();
+    }
+
+    /**
+     * Records the validation of a new bridge.
+     *
+     * @param nanos   The time the validation took.
+     * @param isValid True if the bridge can be added.
+     */
+    public void recordValidation(long nanos, boolean isValid) {
+        this.validationLatency.record(nanos);
+
+        if (!isValid) {
+            this.bridgesRejected.increment();
+        }
+    }
+
+    public void recordBridgeAdded() {
+        this.bridgesAdded.increment();
+    }
+
+    public void recordBridgeRemoved() {
+        this.bridgesRemoved.increment();
+    }
+
+    @Override
+    public long getWalks() {
+        return walks.sum();
+    }
+
+    @Override
+    public long getBridgesCrossed() {
+        return bridgesCrossed.sum();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getWalkLatency() {
+        return walkLatency.snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getBridgeActions() {
+        return sums(bridgeActions);
+    }
+
+    @Override
+    public Map<String, Long> getStrandActions() {
+        return sums(strandActions);
+    }
+
+    @Override
+    public long getBridgesAdded() {
+        return bridgesAdded.sum();
+    }
+
+    @Override
+    public long getBridgesRejected() {
+        return bridgesRejected.sum();
+    }
+
+    @Override
+    public long getBridgesRemoved() {
+        return bridgesRemoved.sum();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getValidationLatency() {
+        return validationLatency.snapshot();
+    }
+
+    private static <E extends Enum<E>> EnumMap<E, LongAdder> counters(Class<E> type) {
+        EnumMap<E, LongAdder> counters = new EnumMap<>(type);
+
+        for (E constant : type.getEnumConstants()) {
+            counters.put(constant, new LongAdder());
+        }
+
+        return counters;
+    }
+
+    private static <E extends Enum<E>> Map<String, Long> sums(EnumMap<E, LongAdder> counters) {
+        LinkedHashMap<String, Long> sums = new LinkedHashMap<>();
+
+        for (Map.Entry<E, LongAdder> entry : counters.entrySet()) {
+            sums.put(entry.getKey().name(), entry.getValue().sum());
+        }
+
+        return sums;
+    }
+}
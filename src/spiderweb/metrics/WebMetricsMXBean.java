@@ -0,0 +1,27 @@
+package spiderweb.metrics;
+
+import java.util.Map;
+
+/**
+ * The operations of the spider webs, seen through JMX.
+ */
+public interface WebMetricsMXBean {
+
+    long getWalks();
+
+    long getBridgesCrossed();
+
+    LatencyHistogram.Snapshot getWalkLatency();
+
+    Map<String, Long> getBridgeActions();
+
+    Map<String, Long> getStrandActions();
+
+    long getBridgesAdded();
+
+    long getBridgesRejected();
+
+    long getBridgesRemoved();
+
+    LatencyHistogram.Snapshot getValidationLatency();
+}
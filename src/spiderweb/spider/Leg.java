@@ -1,13 +1,21 @@
 package spiderweb.spider;
 
-import shape.Canvas;
+import shape.Layer;
+import shape.Renderer;
 
 import java.awt.*;
 import java.awt.geom.Line2D;
 
 public class Leg {
 
+    // The pose of a leg only depends on (tick - indexWeight) % 4, from -3 to 3
+    private static final int PHASES = 7;
+    private static final int LENGTH = 24;
+
     private final int index;
+    private final int[] relativeX;
+    private final int[] relativeY;
+    private final ShapeBuffer<Line2D.Double> lines;
     private boolean isVisible;
 
     public Leg(int index) {
@@ -22,59 +30,75 @@ public class Leg {
 
         isVisible = false;
         this.index = index;
+        this.relativeX = new int[PHASES];
+        this.relativeY = new int[PHASES];
+        this.lines = new ShapeBuffer<>(new Line2D.Double(), new Line2D.Double());
+
+        int angle = 22;
+
+        for (int phase = 0; phase < PHASES; phase++) {
+            double offset = calculateOffset(phase - 3);
+            double radians = Math.toRadians(angle * ((index % 4) - offset));
+
+            relativeX[phase] = (index < 4 ? 1 : -1) * (int) (Math.cos(radians) * LENGTH);
+            relativeY[phase] = (int) (Math.sin(radians) * LENGTH);
+        }
     }
 
     /**
-     * Calculates the offset for the leg based on the index and the current tick.
+     * Calculates the phase of the leg based on the index and the current tick.
      *
      * @param index The index of the leg.
      * @param tick  The current tick.
-     * @return The offset for the leg.
+     * @return The phase of the leg, from 0 to 6.
      */
-    private double calculateOffset(int index, int tick) {
+    private static int calculatePhase(int index, int tick) {
         int indexWeight = (index % 4) * 16;
         int remainder = (tick - indexWeight) % 4;
+
+        return remainder + 3;
+    }
+
+    /**
+     * Calculates the offset for the leg based on the remainder of its phase.
+     *
+     * @param remainder The remainder, from -3 to 3.
+     * @return The offset for the leg.
+     */
+    private static double calculateOffset(int remainder) {
         double scaled = remainder * 0.15;
 
         return 1.5 + scaled;
     }
 
     /**
-     * Draws the leg on the canvas.
+     * Draws the leg on the canvas, changing the copy of its line that the canvas doesn't have.
      *
+     * @param renderer       The renderer of the animation.
      * @param spiderPosition The position of the spider.
      * @param tick           The current tick of the animation.
      */
-    public void draw(Point spiderPosition, int tick) {
+    public void draw(Renderer renderer, Point spiderPosition, int tick) {
         if (isVisible) {
-            Canvas canvas = Canvas.getCanvas();
             int xCenter = (int) spiderPosition.getX();
             int yCenter = (int) spiderPosition.getY();
+            int phase = calculatePhase(index, tick);
+            Line2D.Double line = lines.next();
 
-            int xEnd;
-            int yEnd;
-            int angle = 22;
-            double offset = calculateOffset(index, tick);
-
-            double radians = Math.toRadians(angle * ((index % 4) - offset));
-
-            int relativeX = (int) (Math.cos(radians) * 24);
-            int relativeY = (int) (Math.sin(radians) * 24);
-            yEnd = yCenter + relativeY;
-            xEnd = xCenter + (index < 4 ? 1 : -1) * relativeX;
-
-            canvas.draw(this, "black", new Line2D.Double(xCenter, yCenter, xEnd, yEnd));
+            line.setLine(xCenter, yCenter, xCenter + relativeX[phase], yCenter + relativeY[phase]);
+            renderer.draw(this, "black", line, Layer.SPIDER);
         }
     }
 
     /**
      * Makes the leg visible and draws it on the canvas.
      *
+     * @param renderer       The renderer of the animation.
      * @param spiderPosition The position of the spider.
      * @param tick           The current tick of the animation.
      */
-    public void makeVisible(Point spiderPosition, int tick) {
+    public void makeVisible(Renderer renderer, Point spiderPosition, int tick) {
         isVisible = true;
-        draw(spiderPosition, tick);
+        draw(renderer, spiderPosition, tick);
     }
 }
@@ -0,0 +1,43 @@
+package spiderweb.spider;
+
+import java.awt.Shape;
+
+/**
+ * Two copies of a shape used in turns, like the paths of the {@link Trace}. The renderer keeps the last
+ * copy it was given until it is given the other one, so the copy returned by {@link #next()} is never
+ * changed while the canvas rasterizes it.
+ * <p>
+ * The buffer must be used from a single thread, and every copy it returns must be given to the renderer
+ * before the next call.
+ *
+ * @param <S> The type of the shape.
+ */
+final class ShapeBuffer<S extends Shape> {
+
+    private S drawn;
+    private S free;
+
+    /**
+     * Constructs a buffer with two copies of a shape.
+     *
+     * @param first  The first copy.
+     * @param second The second copy, a different object than the first one.
+     */
+    ShapeBuffer(S first, S second) {
+        this.drawn = first;
+        this.free = second;
+    }
+
+    /**
+     * Gets the copy that the renderer doesn't have, it becomes the drawn copy.
+     *
+     * @return The copy that can be changed.
+     */
+    S next() {
+        S next = free;
+        free = drawn;
+        drawn = next;
+
+        return next;
+    }
+}
@@ -1,23 +1,32 @@
 package spiderweb.spider;
 
-import shape.Canvas;
+import interfaces.Copyable;
+import shape.AnimationScheduler;
+import shape.Layer;
+import shape.Renderer;
 import spiderweb.main.SpiderWeb;
-import spiderweb.strands.NormalStrand;
-import spiderweb.strands.Strand;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
-import java.util.function.Function;
 
-public class Spider {
+public class Spider implements Copyable<Spider> {
 
     private final int WIDTH = 30;
     private final int HEIGHT = 24;
-    private final ArrayList<Strand> traceStrands;
     private final ArrayList<Leg> legs;
+    private final String leftEyeKey;
+    private final String rightEyeKey;
+    private final String currentLineKey;
+
+    // Owned by the thread of the animation scheduler, each shape is reused every other frame
+    private final Trace trace;
+    private final Point framePosition;
+    private final ShapeBuffer<Ellipse2D.Double> bodies;
+    private final ShapeBuffer<Ellipse2D.Double> leftEyes;
+    private final ShapeBuffer<Ellipse2D.Double> rightEyes;
+    private final ShapeBuffer<Line2D.Double> currentLines;
     private Boolean isVisible = true;
     private Point position;
 
@@ -30,8 +39,17 @@ public class Spider {
      */
     public Spider(Point position) {
         this.position = position;
-        this.traceStrands = new ArrayList<>();
         this.legs = new ArrayList<>();
+        this.leftEyeKey = this + "leftEye";
+        this.rightEyeKey = this + "rightEye";
+        this.currentLineKey = this + "currentLine";
+
+        this.trace = new Trace();
+        this.framePosition = new Point();
+        this.bodies = new ShapeBuffer<>(new Ellipse2D.Double(0, 0, WIDTH, HEIGHT), new Ellipse2D.Double(0, 0, WIDTH, HEIGHT));
+        this.leftEyes = new ShapeBuffer<>(new Ellipse2D.Double(0, 0, 5, 5), new Ellipse2D.Double(0, 0, 5, 5));
+        this.rightEyes = new ShapeBuffer<>(new Ellipse2D.Double(0, 0, 5, 5), new Ellipse2D.Double(0, 0, 5, 5));
+        this.currentLines = new ShapeBuffer<>(new Line2D.Double(), new Line2D.Double());
 
         this.isAlive = true;
 
@@ -41,37 +59,67 @@ public class Spider {
     }
 
     /**
-     * Draws the spider on the canvas.
+     * Copies the spider with its position and state, without its trace lines.
      *
-     * @param tick The current tick of the animation.
+     * @return A new spider at the same position.
      */
-    public void draw(int tick) {
-        if (isVisible) {
-            Canvas canvas = Canvas.getCanvas();
+    @Override
+    public Spider copy() {
+        Spider copy = new Spider(new Point(this.position));
+        copy.isAlive = this.isAlive;
+        copy.isVisible = this.isVisible;
 
-            for (Leg leg : legs) {
-                leg.draw(this.position, tick);
-            }
+        return copy;
+    }
+
+    /**
+     * Draws the spider at the given point of its animation, called on the thread of the scheduler.
+     * Each shape has two copies used in turns, so a frame allocates nothing and never changes the copy
+     * that the canvas may be rasterizing.
+     *
+     * @param renderer The renderer of the animation.
+     * @param position The position of the spider in the frame.
+     * @param tick     The current tick of the animation.
+     * @param isAlive  If the spider was alive when the frame was queued.
+     */
+    private void drawFrame(Renderer renderer, Point position, int tick, boolean isAlive) {
+        for (Leg leg : legs) {
+            leg.draw(renderer, position, tick);
+        }
 
-            double xDraw = position.getX() - (double) WIDTH / 2;
-            double yDraw = position.getY() - (double) HEIGHT / 2;
+        double xDraw = position.getX() - (double) WIDTH / 2;
+        double yDraw = position.getY() - (double) HEIGHT / 2;
 
-            canvas.draw(this, this.isAlive ? "black" : "#909090", new Ellipse2D.Double(xDraw, yDraw, WIDTH, HEIGHT));
-            canvas.draw(this + "leftEye", "red", new Ellipse2D.Double(xDraw + 5, yDraw + 5, 5, 5));
-            canvas.draw(this + "rightEye", "red", new Ellipse2D.Double(xDraw + 20, yDraw + 5, 5, 5));
+        Ellipse2D.Double body = bodies.next();
+        Ellipse2D.Double leftEye = leftEyes.next();
+        Ellipse2D.Double rightEye = rightEyes.next();
 
-            for (Strand strand : traceStrands) {
-                strand.draw();
-            }
-        }
+        body.x = xDraw;
+        body.y = yDraw;
+        leftEye.x = xDraw + 5;
+        leftEye.y = yDraw + 5;
+        rightEye.x = xDraw + 20;
+        rightEye.y = yDraw + 5;
+
+        renderer.draw(this, isAlive ? "black" : "#909090", body, Layer.SPIDER);
+        renderer.draw(leftEyeKey, "red", leftEye, Layer.SPIDER);
+        renderer.draw(rightEyeKey, "red", rightEye, Layer.SPIDER);
     }
 
     /**
-     * Draws the spider on the canvas.
+     * Draws the spider on the canvas, after the animations already queued.
      * The spider is represented by a black ellipse centered at its current position.
      */
     public void draw() {
-        this.draw(0);
+        if (isVisible) {
+            Point position = this.position;
+            boolean isAlive = this.isAlive;
+
+            AnimationScheduler.getInstance().submit(1, (renderer, frame) -> {
+                this.drawFrame(renderer, position, 0, isAlive);
+                this.trace.draw(renderer);
+            });
+        }
     }
 
     /**
@@ -87,55 +135,66 @@ public class Spider {
     public void makeVisible() {
         isVisible = true;
 
-        for (Leg leg : legs) {
-            leg.makeVisible(this.position, 0);
-        }
+        Point position = this.position;
+
+        AnimationScheduler.getInstance().submit(1, (renderer, frame) -> {
+            for (Leg leg : legs) {
+                leg.makeVisible(renderer, position, 0);
+            }
+        });
     }
 
     /**
-     * Moves the spider smoothly to the specified new position.
-     * The movement is performed in a straight line at a constant speed.
+     * Moves the spider to the specified new position. The spider is there as soon as this method
+     * returns, the movement is queued to be drawn smoothly in a straight line at a constant speed.
      *
      * @param newPosition The new position to which the spider will move.
      */
     public void moveTo(Point newPosition) {
-        final double STEP = (double) 4 / getPosition().distance(newPosition);
-
-        Point2D.Double director = new Point2D.Double(newPosition.getX() - position.getX(), newPosition.getY() - position.getY());
-        Point initialPosition = new Point((int) position.getX(), (int) position.getY());
-        Canvas canvas = Canvas.getCanvas();
+        Point initialPosition = new Point(this.position);
 
-        Function<Double, Point> lineFunction = (Double t) -> {
-            int x = (int) (initialPosition.getX() + t * director.x);
-            int y = (int) (initialPosition.getY() + t * director.y);
+        this.position = newPosition;
 
-            return new Point(x, y);
-        };
-
-        double parameter = SpiderWeb.TEST_MODE ? -1 : 0;
-        int tick = 0;
-
-        while (parameter >= 0 && parameter < 1) {
-            this.position = lineFunction.apply(parameter);
-            canvas.wait(8);
+        if (SpiderWeb.TEST_MODE) {
+            return;
+        }
 
-            this.draw(tick++);
+        if (!isVisible) {
+            AnimationScheduler.getInstance().submit(1, (renderer, frame) -> this.trace.add(initialPosition.x, initialPosition.y, newPosition.x, newPosition.y));
+            return;
+        }
 
-            if (!SpiderWeb.TEST_MODE) {
-                canvas.draw(this + "currentLine", "red", new Line2D.Double(initialPosition.getX(), initialPosition.getY(), position.getX(), position.getY()));
+        // One frame every 4 pixels, the last one at the new position
+        double distance = initialPosition.distance(newPosition);
+        int frames = (int) Math.ceil(distance / 4) + 1;
+        boolean isAlive = this.isAlive;
+
+        AnimationScheduler.getInstance().submit(frames, (renderer, frame) -> {
+            if (frame == frames - 1) {
+                this.drawFrame(renderer, newPosition, frame, isAlive);
+
+                renderer.erase(currentLineKey);
+                this.trace.add(initialPosition.x, initialPosition.y, newPosition.x, newPosition.y);
+                this.trace.draw(renderer);
+            } else {
+                pointOnLine(initialPosition, newPosition, frame * 4 / distance, framePosition);
+                this.drawFrame(renderer, framePosition, frame, isAlive);
+
+                Line2D.Double currentLine = currentLines.next();
+                currentLine.setLine(initialPosition, framePosition);
+                renderer.draw(currentLineKey, "red", currentLine, Layer.SPIDER);
             }
+        });
+    }
 
-            parameter += STEP;
-        }
-
-        if (parameter != 1) {
-            this.position = newPosition;
-            this.draw();
-        }
+    /**
+     * Moves the point to the given fraction of the way between two points.
+     */
+    private static void pointOnLine(Point start, Point end, double parameter, Point point) {
+        int x = (int) (start.getX() + parameter * (end.getX() - start.getX()));
+        int y = (int) (start.getY() + parameter * (end.getY() - start.getY()));
 
-        if (!SpiderWeb.TEST_MODE) {
-            this.traceStrands.add(new NormalStrand(initialPosition, newPosition, "red"));
-        }
+        point.setLocation(x, y);
     }
 
     public Point getPosition() {
@@ -148,18 +207,15 @@ public class Spider {
     }
 
     /**
-     * Resets the trace lines drawn by the spider.
+     * Resets the trace lines drawn by the spider, once the animations already queued are drawn.
      */
     public void resetTraceLines() {
-        for (Strand strand : traceStrands) {
-            strand.erase();
-        }
-        traceStrands.clear();
+        AnimationScheduler.getInstance().submit(1, (renderer, frame) -> this.trace.clear(renderer));
     }
 
     public void kill() {
         this.isAlive = false;
-        this.moveTo(this.position);
+        this.draw();
     }
 
     public void respawn() {
@@ -0,0 +1,110 @@
+package spiderweb.spider;
+
+import shape.Layer;
+import shape.Renderer;
+
+import java.awt.geom.Path2D;
+
+/**
+ * The red path left by the spider, drawn as a single shape. Only the last {@link #CAPACITY} segments
+ * are kept, the oldest one is dropped when a new one doesn't fit.
+ * <p>
+ * The trace must be used from a single thread. It fills two paths in turns: once a path is given to
+ * the renderer, the next changes go to the other one, so a path is never changed while it is drawn.
+ */
+public class Trace {
+
+    public static final int CAPACITY = 256;
+
+    private final double[] segments;
+    private final Path2D.Double[] paths;
+    private int first;
+    private int size;
+    private int current;
+    private boolean isDrawn;
+
+    /**
+     * Constructs an empty trace.
+     */
+    public Trace() {
+        this.segments = new double[CAPACITY * 4];
+        this.paths = new Path2D.Double[]{new Path2D.Double(), new Path2D.Double()};
+    }
+
+    /**
+     * Adds a segment at the end of the trace.
+     *
+     * @param x1 The x coordinate of the start of the segment.
+     * @param y1 The y coordinate of the start of the segment.
+     * @param x2 The x coordinate of the end of the segment.
+     * @param y2 The y coordinate of the end of the segment.
+     */
+    public void add(double x1, double y1, double x2, double y2) {
+        int slot;
+
+        if (size == CAPACITY) {
+            slot = first;
+            first = (first + 1) % CAPACITY;
+        } else {
+            slot = (first + size) % CAPACITY;
+            size++;
+        }
+
+        segments[slot * 4] = x1;
+        segments[slot * 4 + 1] = y1;
+        segments[slot * 4 + 2] = x2;
+        segments[slot * 4 + 3] = y2;
+
+        this.rebuild();
+    }
+
+    /**
+     * Removes every segment and erases the trace.
+     *
+     * @param renderer The renderer of the animation.
+     */
+    public void clear(Renderer renderer) {
+        first = 0;
+        size = 0;
+
+        renderer.erase(this);
+        isDrawn = false;
+
+        this.rebuild();
+    }
+
+    /**
+     * Draws the trace on the canvas.
+     *
+     * @param renderer The renderer of the animation.
+     */
+    public void draw(Renderer renderer) {
+        if (size > 0) {
+            renderer.draw(this, "red", paths[current], Layer.SPIDER);
+            isDrawn = true;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fills a path that the renderer doesn't have with the segments, it becomes the current path.
+     */
+    private void rebuild() {
+        if (isDrawn) {
+            current = 1 - current;
+            isDrawn = false;
+        }
+
+        Path2D.Double path = paths[current];
+        path.reset();
+
+        for (int i = 0; i < size; i++) {
+            int slot = (first + i) % CAPACITY * 4;
+            path.moveTo(segments[slot], segments[slot + 1]);
+            path.lineTo(segments[slot + 2], segments[slot + 3]);
+        }
+    }
+}
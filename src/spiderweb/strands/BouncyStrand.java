@@ -1,15 +1,13 @@
 package spiderweb.strands;
 
-import spiderweb.bridges.Bridge;
-import spiderweb.bridges.NormalBridge;
 import spiderweb.main.SpiderWeb;
 
 import java.awt.*;
 
 public class BouncyStrand extends Strand {
 
-    public BouncyStrand(Point start, Point end, String color) {
-        super(start, end, color);
+    public BouncyStrand(String color) {
+        super(color);
     }
 
     @Override
@@ -20,13 +18,10 @@ public class BouncyStrand extends Strand {
             nextStrand = 0;
         }
 
-        Point initialPoint = spiderWeb.getStrands().get(lastStrand).getScaledPoint((double) spiderWeb.getCurrentDistance() / spiderWeb.getRadio());
-        Point finalPoint = spiderWeb.getStrands().get(nextStrand).getScaledPoint((double) spiderWeb.getCurrentDistance() / spiderWeb.getRadio());
-
         spiderWeb.setCurrentStrand(nextStrand);
 
-        Bridge moveTo = new NormalBridge(spiderWeb.getCurrentDistance(), lastStrand, nextStrand, initialPoint, finalPoint, "temp");
-        spiderWeb.getSpider().moveTo(moveTo.getFinalPoint());
+        Point finalPoint = spiderWeb.getViewport().project(nextStrand, spiderWeb.getCurrentDistance());
+        spiderWeb.getSpider().moveTo(finalPoint);
     }
 
     @Override
@@ -41,7 +36,7 @@ public class BouncyStrand extends Strand {
 
     @Override
     public Strand copy() {
-        return new BouncyStrand(this.start, this.end, this.color);
+        return new BouncyStrand(this.color);
     }
 
 }
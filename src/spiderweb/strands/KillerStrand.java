@@ -2,12 +2,10 @@ package spiderweb.strands;
 
 import spiderweb.main.SpiderWeb;
 
-import java.awt.*;
-
 public class KillerStrand extends Strand {
 
-    public KillerStrand(Point start, Point end, String color) {
-        super(start, end, color);
+    public KillerStrand(String color) {
+        super(color);
     }
 
     @Override
@@ -25,6 +23,6 @@ public class KillerStrand extends Strand {
     }
     @Override
     public Strand copy() {
-        return new KillerStrand(this.start, this.end, this.color);
+        return new KillerStrand(this.color);
     }
 }
@@ -2,16 +2,14 @@ package spiderweb.strands;
 
 import spiderweb.main.SpiderWeb;
 
-import java.awt.*;
-
 public class NormalStrand extends Strand {
 
-    public NormalStrand(Point start, Point end) {
-        super(start, end);
+    public NormalStrand() {
+        super();
     }
 
-    public NormalStrand(Point start, Point end, String color) {
-        super(start, end, color);
+    public NormalStrand(String color) {
+        super(color);
     }
 
     @Override
@@ -30,6 +28,6 @@ public class NormalStrand extends Strand {
 
     @Override
     public Strand copy() {
-        return new NormalStrand(this.start, this.end, this.color);
+        return new NormalStrand(this.color);
     }
 }
@@ -1,43 +1,32 @@
 package spiderweb.strands;
 
 import interfaces.Copyable;
-import shape.Canvas;
-import spiderweb.bridges.Bridge;
+import shape.Renderer;
+import shape.Renderers;
+import shape.Viewport;
 import spiderweb.main.SpiderWeb;
-import utilities.MessageHandler;
 
 import java.awt.*;
 import java.awt.geom.Line2D;
 
 public abstract class Strand implements Copyable<Strand> {
 
-    protected final Point start;
-    protected final Point end;
     protected String color;
 
     /**
-     * Constructs a new instance of Line with the specified start and end points.
-     * The default color for the line is gray.
-     *
-     * @param start The starting point of the line.
-     * @param end   The ending point of the line.
+     * Constructs a new strand. The default color for the strand is gray.
+     * The strand doesn't know where it is, its position is its place in the spider web.
      */
-    public Strand(Point start, Point end) {
-        this.start = start;
-        this.end = end;
+    public Strand() {
         this.color = "gray";
     }
 
     /**
-     * Constructs a new instance of Line with the specified start and end points, and color.
+     * Constructs a new strand with the specified color.
      *
-     * @param start The starting point of the line.
-     * @param end   The ending point of the line.
-     * @param color The color of the line.
+     * @param color The color of the strand.
      */
-    public Strand(Point start, Point end, String color) {
-        this.start = start;
-        this.end = end;
+    public Strand(String color) {
         this.color = color;
     }
 
@@ -49,50 +38,38 @@ public abstract class Strand implements Copyable<Strand> {
     public abstract void triggerAction(SpiderWeb spiderWeb);
 
     /**
-     * Draws the line on the canvas.
+     * Draws the strand on the canvas, from the center of the spider web to its edge.
+     *
+     * @param viewport The viewport that projects the spider web onto the canvas.
+     * @param strand   The place of the strand in the spider web.
      */
-    public void draw() {
-        shape.Canvas canvas = shape.Canvas.getCanvas();
-        canvas.draw(this, this.color, new Line2D.Double(start.getX(), start.getY(), end.getX(), end.getY()));
-    }
+    public void draw(Viewport viewport, int strand) {
+        Renderer renderer = Renderers.current();
+        Point start = viewport.getCenter();
+        Point end = viewport.projectEnd(strand);
 
-    public void erase() {
-        shape.Canvas canvas = Canvas.getCanvas();
-        canvas.erase(this);
+        renderer.draw(this, this.color, new Line2D.Double(start.getX(), start.getY(), end.getX(), end.getY()));
     }
 
-    /**
-     * Gets a point on the line at a specified scale between 0 and 1.
-     *
-     * @param scale The scale value between 0 and 1 indicating the position along the line.
-     * @return The point on the line at the specified scale.
-     * @throws IllegalArgumentException if the scale is not between 0 and 1.
-     */
-    public Point getScaledPoint(double scale) {
-        if (scale < 0 || scale > 1) {
-            MessageHandler.showError("Invalid Scale");
-        }
-
-        int x = (int) (start.getX() + (end.getX() - start.getX()) * scale);
-        int y = (int) (start.getY() + (end.getY() - start.getY()) * scale);
-        return new Point(x, y);
+    public void erase() {
+        Renderer renderer = Renderers.current();
+        renderer.erase(this);
     }
 
     public abstract Strand.Types getType();
 
     public void setColor(String color) {
         this.color = color;
-        this.draw();
     }
 
-    public Point getEnd() {
-        return end;
+    public String getColor() {
+        return color;
     }
 
     public abstract String toString();
 
     public boolean equals(Strand strand) {
-        return strand.start.equals(this.start) && strand.end.equals(this.end) && strand.color.equals(this.color);
+        return strand.getType() == this.getType() && strand.color.equals(this.color);
     }
 
     @Override
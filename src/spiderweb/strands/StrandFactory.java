@@ -0,0 +1,19 @@
+package spiderweb.strands;
+
+public abstract class StrandFactory {
+
+    /**
+     * Builds a strand with the specified parameters.
+     *
+     * @param color The color of the strand.
+     * @param type  The type of the strand.
+     * @return The strand with the specified parameters.
+     */
+    public static Strand buildStrand(String color, Strand.Types type) {
+        return switch (type) {
+            case NORMAL -> new NormalStrand(color);
+            case KILLER -> new KillerStrand(color);
+            case BOUNCY -> new BouncyStrand(color);
+        };
+    }
+}
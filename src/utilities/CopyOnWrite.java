@@ -0,0 +1,66 @@
+package utilities;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds a value that can be shared between several owners until one of them changes it. Sharing
+ * costs nothing, the first write after a share copies the value, so the other owners keep seeing
+ * the value as it was when it was shared.
+ *
+ * @param <T> The type of the value.
+ */
+public class CopyOnWrite<T> {
+
+    private final UnaryOperator<T> copier;
+    private T value;
+    private boolean shared;
+
+    /**
+     * Constructs a holder that owns the given value.
+     *
+     * @param value  The value to hold.
+     * @param copier The function that copies the value before the first write after a share.
+     */
+    public CopyOnWrite(T value, UnaryOperator<T> copier) {
+        this.value = value;
+        this.copier = copier;
+        this.shared = false;
+    }
+
+    /**
+     * Gets the value to read it, the caller must not change it.
+     *
+     * @return The value.
+     */
+    public T read() {
+        return value;
+    }
+
+    /**
+     * Gets the value to change it, copying it first if it is shared with another holder.
+     *
+     * @return The value, owned only by this holder.
+     */
+    public T write() {
+        if (shared) {
+            value = copier.apply(value);
+            shared = false;
+        }
+
+        return value;
+    }
+
+    /**
+     * Shares the value with a new holder, the next write on any of them copies it.
+     *
+     * @return A new holder of the same value.
+     */
+    public CopyOnWrite<T> share() {
+        this.shared = true;
+
+        CopyOnWrite<T> copy = new CopyOnWrite<>(value, copier);
+        copy.shared = true;
+
+        return copy;
+    }
+}
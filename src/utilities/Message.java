@@ -0,0 +1,56 @@
+package utilities;
+
+/**
+ * A message for the user, published on the {@link MessageChannel} and shown later by its sinks.
+ */
+public class Message {
+
+    /**
+     * The kind of a message, it is also the category its counter is kept in.
+     */
+    public enum Kind {
+        INFO,
+        ERROR,
+        FATAL
+    }
+
+    private final Kind kind;
+    private final String title;
+    private final String text;
+    private final long timestamp;
+
+    /**
+     * Constructs a message published now.
+     *
+     * @param kind  The kind of the message.
+     * @param title The title of the message.
+     * @param text  The text of the message.
+     */
+    public Message(Kind kind, String title, String text) {
+        this.kind = kind;
+        this.title = title;
+        this.text = text;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return title + ": " + text;
+    }
+}
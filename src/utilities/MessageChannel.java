@@ -0,0 +1,223 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Carries the messages for the user from the code that publishes them to the sinks that show them.
+ * Publishing never blocks: the message is stored in a ring buffer, the oldest message is dropped when
+ * the buffer is full, and the sinks only get the messages when the channel is drained.
+ * <p>
+ * Each sink has a maximum number of messages per second, the messages over it are counted as
+ * suppressed instead of being shown. A sink can also be turned off, then it skips the messages
+ * without counting them against its limit.
+ */
+public class MessageChannel {
+
+    private final Message[] buffer;
+    private int first;
+    private int size;
+
+    private final EnumMap<Message.Kind, LongAdder> published;
+    private final LongAdder dropped;
+    private final LongAdder suppressed;
+    private final CopyOnWriteArrayList<RateLimitedSink> sinks;
+    private final ArrayList<Message> batch;
+
+    /**
+     * Constructs an empty channel.
+     *
+     * @param capacity The number of messages kept until the channel is drained.
+     */
+    public MessageChannel(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1");
+        }
+
+        this.buffer = new Message[capacity];
+        this.published = new EnumMap<>(Message.Kind.class);
+        this.dropped = new LongAdder();
+        this.suppressed = new LongAdder();
+        this.sinks = new CopyOnWriteArrayList<>();
+        this.batch = new ArrayList<>(capacity);
+
+        for (Message.Kind kind : Message.Kind.values()) {
+            this.published.put(kind, new LongAdder());
+        }
+    }
+
+    /**
+     * Publishes a message, it is shown when the channel is drained.
+     *
+     * @param message The message.
+     */
+    public void publish(Message message) {
+        this.published.get(message.getKind()).increment();
+
+        synchronized (this.buffer) {
+            if (this.size == this.buffer.length) {
+                this.buffer[this.first] = message;
+                this.first = (this.first + 1) % this.buffer.length;
+                this.dropped.increment();
+            } else {
+                this.buffer[(this.first + this.size) % this.buffer.length] = message;
+                this.size++;
+            }
+        }
+    }
+
+    /**
+     * Adds a sink that gets the messages when the channel is drained.
+     *
+     * @param sink              The sink.
+     * @param messagesPerSecond The maximum number of messages the sink gets each second.
+     */
+    public void addSink(Consumer<Message> sink, int messagesPerSecond) {
+        this.addSink(sink, messagesPerSecond, () -> true);
+    }
+
+    /**
+     * Adds a sink that gets the messages when the channel is drained, only while it is turned on.
+     *
+     * @param sink              The sink.
+     * @param messagesPerSecond The maximum number of messages the sink gets each second.
+     * @param enabled           Tells, for each message, if the sink is turned on.
+     */
+    public void addSink(Consumer<Message> sink, int messagesPerSecond, BooleanSupplier enabled) {
+        this.sinks.add(new RateLimitedSink(sink, messagesPerSecond, enabled));
+    }
+
+    /**
+     * Removes every sink.
+     */
+    public void clearSinks() {
+        this.sinks.clear();
+    }
+
+    /**
+     * Gives the messages published so far to the sinks, in the order they were published. Only one
+     * thread drains at a time, a drain started while another is running returns at once and the
+     * running one also gives the messages published meanwhile, so none of them waits for a later drain.
+     *
+     * @return The number of messages taken from the channel.
+     */
+    public int drain() {
+        int count = 0;
+
+        while (true) {
+            synchronized (this.batch) {
+                if (!this.batch.isEmpty()) {
+                    // A sink is draining again from inside a drain, such as a modal dialog
+                    return count;
+                }
+
+                synchronized (this.buffer) {
+                    for (int i = 0; i < this.size; i++) {
+                        int slot = (this.first + i) % this.buffer.length;
+                        this.batch.add(this.buffer[slot]);
+                        this.buffer[slot] = null;
+                    }
+
+                    this.first = 0;
+                    this.size = 0;
+                }
+
+                if (this.batch.isEmpty()) {
+                    return count;
+                }
+            }
+
+            count += this.batch.size();
+
+            try {
+                for (Message message : this.batch) {
+                    for (RateLimitedSink sink : this.sinks) {
+                        sink.accept(message);
+                    }
+                }
+            } finally {
+                synchronized (this.batch) {
+                    this.batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of messages of the given kind published since the channel was created.
+     *
+     * @param kind The kind of the messages.
+     * @return The number of messages.
+     */
+    public long getPublishedCount(Message.Kind kind) {
+        return this.published.get(kind).sum();
+    }
+
+    /**
+     * Gets the number of messages dropped because the channel was full.
+     *
+     * @return The number of messages.
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Gets the number of times a message wasn't given to a sink because of its rate limit.
+     *
+     * @return The number of messages.
+     */
+    public long getSuppressedCount() {
+        return this.suppressed.sum();
+    }
+
+    /**
+     * Gets the number of messages waiting to be drained.
+     *
+     * @return The number of messages.
+     */
+    public int getPendingCount() {
+        synchronized (this.buffer) {
+            return this.size;
+        }
+    }
+
+    private final class RateLimitedSink {
+        private final Consumer<Message> sink;
+        private final int messagesPerSecond;
+        private final BooleanSupplier enabled;
+        private long windowStart;
+        private int count;
+
+        private RateLimitedSink(Consumer<Message> sink, int messagesPerSecond, BooleanSupplier enabled) {
+            this.sink = sink;
+            this.messagesPerSecond = messagesPerSecond;
+            this.enabled = enabled;
+        }
+
+        private void accept(Message message) {
+            if (!this.enabled.getAsBoolean()) {
+                return;
+            }
+
+            long now = System.nanoTime();
+
+            if (now - this.windowStart >= 1_000_000_000L) {
+                this.windowStart = now;
+                this.count = 0;
+            }
+
+            if (this.count >= this.messagesPerSecond) {
+                suppressed.increment();
+                return;
+            }
+
+            this.count++;
+            this.sink.accept(message);
+        }
+    }
+}
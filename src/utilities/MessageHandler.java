@@ -3,19 +3,45 @@ package utilities;
 import spiderweb.main.SpiderWeb;
 
 import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Shows messages to the user without making the caller wait for them. The messages are published on
+ * a {@link MessageChannel} that is drained on the event dispatch thread, where they are shown in a
+ * dialog, or printed in test mode or without a display.
+ */
 public abstract class MessageHandler {
 
+    private static final int CAPACITY = 1024;
+    private static final int DIALOGS_PER_SECOND = 3;
+    private static final int PRINTS_PER_SECOND = 1000;
+
+    private static final MessageChannel CHANNEL = new MessageChannel(CAPACITY);
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    static {
+        // Printing doesn't stop the user like a dialog does, so it has a limit of its own
+        CHANNEL.addSink(MessageHandler::showDialog, DIALOGS_PER_SECOND, () -> !isPrinted());
+        CHANNEL.addSink(System.out::println, PRINTS_PER_SECOND, MessageHandler::isPrinted);
+    }
+
+    /**
+     * Gets the channel the messages are published on, to add sinks or read its counters.
+     *
+     * @return The channel.
+     */
+    public static MessageChannel getChannel() {
+        return CHANNEL;
+    }
+
     /**
      * Displays an error message dialog with the specified message.
      *
      * @param message The error message to display.
      */
     public static void showError(String message) {
-        if (SpiderWeb.TEST_MODE)
-            System.out.println(message);
-        else
-            JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.ERROR_MESSAGE);
+        publish(Message.Kind.ERROR, "Error", message);
     }
 
     /**
@@ -24,12 +50,7 @@ public abstract class MessageHandler {
      * @param message The error message to display.
      */
     public static void showFatalError(String message) throws Exception {
-
-        if (SpiderWeb.TEST_MODE)
-            System.out.println(message);
-        else
-            JOptionPane.showMessageDialog(null, message, "Fatal Error", JOptionPane.ERROR_MESSAGE);
-
+        publish(Message.Kind.FATAL, "Fatal Error", message);
         throw new Exception(message);
     }
 
@@ -40,11 +61,7 @@ public abstract class MessageHandler {
      * @param message The error message to display.
      */
     public static void showError(String title, String message) {
-
-        if (SpiderWeb.TEST_MODE)
-            System.out.println(title + ": " + message);
-        else
-            JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE);
+        publish(Message.Kind.ERROR, title, message);
     }
 
     /**
@@ -54,11 +71,7 @@ public abstract class MessageHandler {
      * @param message The error message to display.
      */
     public static void showFatalError(String title, String message) throws Exception {
-
-        if (SpiderWeb.TEST_MODE)
-            System.out.println(title + ": " + message);
-        else
-            JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE);
+        publish(Message.Kind.FATAL, title, message);
         throw new Exception(message);
     }
 
@@ -68,11 +81,7 @@ public abstract class MessageHandler {
      * @param message The information message to display.
      */
     public static void showInfo(String message) {
-
-        if (SpiderWeb.TEST_MODE)
-            System.out.println(message);
-        else
-            JOptionPane.showMessageDialog(null, message, "Info", JOptionPane.INFORMATION_MESSAGE);
+        publish(Message.Kind.INFO, "Info", message);
     }
 
     /**
@@ -82,10 +91,35 @@ public abstract class MessageHandler {
      * @param message The information message to display.
      */
     public static void showInfo(String title, String message) {
+        publish(Message.Kind.INFO, title, message);
+    }
+
+    /**
+     * Publishes a message and schedules a drain on the event dispatch thread if none is pending.
+     */
+    private static void publish(Message.Kind kind, String title, String text) {
+        CHANNEL.publish(new Message(kind, title, text));
+
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                drainScheduled.set(false);
+                CHANNEL.drain();
+            });
+        }
+    }
 
-        if (SpiderWeb.TEST_MODE)
-            System.out.println(title + ": " + message);
-        else
-            JOptionPane.showMessageDialog(null, message, title, JOptionPane.INFORMATION_MESSAGE);
+    /**
+     * Checks if the messages are printed instead of shown in a dialog, in test mode or without a display.
+     */
+    private static boolean isPrinted() {
+        return SpiderWeb.TEST_MODE || GraphicsEnvironment.isHeadless();
+    }
+
+    /**
+     * Shows a message in a dialog.
+     */
+    private static void showDialog(Message message) {
+        int type = message.getKind() == Message.Kind.INFO ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE;
+        JOptionPane.showMessageDialog(null, message.getText(), message.getTitle(), type);
     }
 }
@@ -0,0 +1,313 @@
+package utilities;
+
+import interfaces.Copyable;
+
+import java.util.Objects;
+
+/**
+ * A hash map that shares its entries with its copies. The entries are kept in a tree that takes five
+ * bits of the hash at each level (a hash array mapped trie), so the tree is never deeper than seven
+ * levels and a read costs O(1). A copy shares the whole tree and a change copies only the nodes on the
+ * path to the changed entry. The nodes created since the last copy belong to the map and are changed
+ * in place, like the nodes of a {@link PersistentList}.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public class PersistentHashMap<K, V> implements Copyable<PersistentHashMap<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private Node root;
+    private Object owner;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     */
+    public PersistentHashMap() {
+        this(null, 0);
+    }
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.owner = new Object();
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key isn't in the map.
+     */
+    public V get(Object key) {
+        Entry<K, V> entry = this.find(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Checks if the map has a key.
+     *
+     * @param key The key.
+     * @return True if the key is in the map.
+     */
+    public boolean containsKey(Object key) {
+        return this.find(key) != null;
+    }
+
+    /**
+     * Puts the value of a key, replacing the previous one.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The previous value, or null if the key wasn't in the map.
+     */
+    public V put(K key, V value) {
+        int hash = hash(key);
+
+        if (root == null) {
+            root = new Node(owner, 0, new Object[0]);
+        }
+
+        root = this.editable(root);
+        return this.insert(root, new Entry<>(hash, key, value, null), 0);
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key The key.
+     * @return The value it had, or null if the key wasn't in the map.
+     */
+    public V remove(Object key) {
+        if (root == null || this.find(key) == null) {
+            return null;
+        }
+
+        root = this.editable(root);
+        return this.delete(root, hash(key), key, 0);
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Shares the entries with a new map in constant time, from now on a change in one of them copies
+     * the nodes it needs instead of changing the shared ones.
+     *
+     * @return A new map with the same entries.
+     */
+    @Override
+    public PersistentHashMap<K, V> copy() {
+        this.owner = new Object();
+        return new PersistentHashMap<>(root, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> find(Object key) {
+        int hash = hash(key);
+        Node node = root;
+
+        for (int shift = 0; node != null; shift += BITS) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+
+            if (slot instanceof Node) {
+                node = (Node) slot;
+                continue;
+            }
+
+            for (Entry<K, V> entry = (Entry<K, V>) slot; entry != null; entry = entry.next) {
+                if (entry.hash == hash && Objects.equals(entry.key, key)) {
+                    return entry;
+                }
+            }
+
+            return null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Puts an entry under a node that belongs to the map.
+     */
+    @SuppressWarnings("unchecked")
+    private V insert(Node node, Entry<K, V> inserted, int shift) {
+        int bit = 1 << ((inserted.hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            slots[index] = inserted;
+
+            node.slots = slots;
+            node.bitmap |= bit;
+            size++;
+
+            return null;
+        }
+
+        Object slot = node.slots[index];
+
+        if (slot instanceof Node) {
+            Node child = this.editable((Node) slot);
+            node.slots[index] = child;
+
+            return this.insert(child, inserted, shift + BITS);
+        }
+
+        Entry<K, V> entries = (Entry<K, V>) slot;
+
+        if (entries.hash != inserted.hash) {
+            // Two different hashes always part before the bits run out, the entries go one level down
+            Node child = new Node(owner, 0, new Object[0]);
+            child.bitmap = 1 << ((entries.hash >>> (shift + BITS)) & MASK);
+            child.slots = new Object[]{entries};
+            node.slots[index] = child;
+
+            return this.insert(child, inserted, shift + BITS);
+        }
+
+        // The same hash, the entries are chained
+        V previous = null;
+        boolean replaced = false;
+        Entry<K, V> chain = null;
+
+        for (Entry<K, V> entry = entries; entry != null; entry = entry.next) {
+            if (Objects.equals(entry.key, inserted.key)) {
+                previous = entry.value;
+                replaced = true;
+            } else {
+                chain = new Entry<>(entry.hash, entry.key, entry.value, chain);
+            }
+        }
+
+        node.slots[index] = new Entry<>(inserted.hash, inserted.key, inserted.value, chain);
+
+        if (!replaced) {
+            size++;
+        }
+
+        return previous;
+    }
+
+    /**
+     * Removes a key that is in the map from a node that belongs to the map.
+     */
+    @SuppressWarnings("unchecked")
+    private V delete(Node node, int hash, Object key, int shift) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object slot = node.slots[index];
+        V value = null;
+
+        if (slot instanceof Node) {
+            Node child = this.editable((Node) slot);
+            value = this.delete(child, hash, key, shift + BITS);
+
+            // A node left with a single chain of entries is replaced by the chain
+            node.slots[index] = child.slots.length == 1 && !(child.slots[0] instanceof Node) ? child.slots[0] : child;
+
+            if (child.slots.length != 0) {
+                return value;
+            }
+        } else {
+            Entry<K, V> chain = null;
+
+            for (Entry<K, V> entry = (Entry<K, V>) slot; entry != null; entry = entry.next) {
+                if (Objects.equals(entry.key, key)) {
+                    value = entry.value;
+                } else {
+                    chain = new Entry<>(entry.hash, entry.key, entry.value, chain);
+                }
+            }
+
+            size--;
+            node.slots[index] = chain;
+
+            if (chain != null) {
+                return value;
+            }
+        }
+
+        Object[] slots = new Object[node.slots.length - 1];
+
+        System.arraycopy(node.slots, 0, slots, 0, index);
+        System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+
+        node.slots = slots;
+        node.bitmap &= ~bit;
+
+        return value;
+    }
+
+    /**
+     * Gets a node that can be changed in place, copying it if it belongs to another map.
+     */
+    private Node editable(Node node) {
+        return node.owner == owner ? node : new Node(owner, node.bitmap, node.slots.clone());
+    }
+
+    private static int hash(Object key) {
+        int hash = Objects.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A node of the tree, each slot is a node or a chain of entries with the same hash. It can only be
+     * changed in place by the map that owns it.
+     */
+    private static final class Node {
+        private final Object owner;
+        private int bitmap;
+        private Object[] slots;
+
+        private Node(Object owner, int bitmap, Object[] slots) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * An entry of the map, entries are never changed so a chain can be shared.
+     */
+    private static final class Entry<K, V> {
+        private final int hash;
+        private final K key;
+        private final V value;
+        private final Entry<K, V> next;
+
+        private Entry(int hash, K key, V value, Entry<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package utilities;
+
+import interfaces.Copyable;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * A list that shares its elements with its copies. The elements are kept in a balanced tree ordered by
+ * position (a treap), a copy shares the whole tree and a change copies only the nodes on the path to the
+ * changed position, so copying costs nothing and every read or change costs O(log n), whether the list
+ * is shared or not. The nodes created since the last copy belong to the list and are changed in place.
+ * <p>
+ * When the elements are sorted by some key, the list can also be searched by that key in O(log n).
+ *
+ * @param <T> The type of the elements.
+ */
+public class PersistentList<T> extends AbstractList<T> implements RandomAccess, Copyable<PersistentList<T>> {
+
+    private Node<T> root;
+    private Object owner;
+
+    /**
+     * Constructs an empty list.
+     */
+    public PersistentList() {
+        this(null);
+    }
+
+    private PersistentList(Node<T> root) {
+        this.root = root;
+        this.owner = new Object();
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public T get(int index) {
+        return this.nodeAt(index).value;
+    }
+
+    @Override
+    public T set(int index, T value) {
+        this.nodeAt(index);
+        root = this.editable(root);
+
+        Node<T> node = root;
+
+        while (index != sizeOf(node.left)) {
+            if (index < sizeOf(node.left)) {
+                node = node.left = this.editable(node.left);
+            } else {
+                index -= sizeOf(node.left) + 1;
+                node = node.right = this.editable(node.right);
+            }
+        }
+
+        T previous = node.value;
+        node.value = value;
+
+        return previous;
+    }
+
+    @Override
+    public void add(int index, T value) {
+        if (index < 0 || index > this.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+        }
+
+        root = this.insert(root, index, new Node<>(value, owner));
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T value = this.get(index);
+
+        root = this.delete(root, index);
+        modCount++;
+
+        return value;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        int index = this.indexOf(value);
+
+        if (index < 0) {
+            return false;
+        }
+
+        this.remove(index);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object value) {
+        int index = 0;
+
+        for (T element : this) {
+            if (Objects.equals(element, value)) {
+                return index;
+            }
+
+            index++;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new TreeIterator();
+    }
+
+    /**
+     * Finds the first element that is not before a key, the elements must be sorted by that key.
+     *
+     * @param comparison Compares an element with the key, negative if the element is before it.
+     * @return The index of the first element whose comparison is not negative, or the size if there isn't one.
+     */
+    public int search(ToIntFunction<? super T> comparison) {
+        Node<T> node = root;
+        int offset = 0;
+        int found = this.size();
+
+        while (node != null) {
+            if (comparison.applyAsInt(node.value) < 0) {
+                offset += sizeOf(node.left) + 1;
+                node = node.right;
+            } else {
+                found = offset + sizeOf(node.left);
+                node = node.left;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Shares the elements with a new list in constant time, from now on a change in one of them copies
+     * the nodes it needs instead of changing the shared ones.
+     *
+     * @return A new list with the same elements.
+     */
+    @Override
+    public PersistentList<T> copy() {
+        this.owner = new Object();
+        return new PersistentList<>(root);
+    }
+
+    private Node<T> nodeAt(int index) {
+        if (index < 0 || index >= this.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+        }
+
+        Node<T> node = root;
+
+        while (index != sizeOf(node.left)) {
+            if (index < sizeOf(node.left)) {
+                node = node.left;
+            } else {
+                index -= sizeOf(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Gets a node that can be changed in place, copying it if it belongs to another list.
+     */
+    private Node<T> editable(Node<T> node) {
+        return node.owner == owner ? node : new Node<>(node, owner);
+    }
+
+    private Node<T> insert(Node<T> node, int index, Node<T> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+
+        if (inserted.priority > node.priority) {
+            inserted.left = this.splitLeft(node, index);
+            inserted.right = this.splitRight(node, index);
+            inserted.size = sizeOf(inserted.left) + sizeOf(inserted.right) + 1;
+
+            return inserted;
+        }
+
+        node = this.editable(node);
+
+        if (index <= sizeOf(node.left)) {
+            node.left = this.insert(node.left, index, inserted);
+        } else {
+            node.right = this.insert(node.right, index - sizeOf(node.left) - 1, inserted);
+        }
+
+        node.size++;
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, int index) {
+        if (index == sizeOf(node.left)) {
+            return this.merge(node.left, node.right);
+        }
+
+        node = this.editable(node);
+
+        if (index < sizeOf(node.left)) {
+            node.left = this.delete(node.left, index);
+        } else {
+            node.right = this.delete(node.right, index - sizeOf(node.left) - 1);
+        }
+
+        node.size--;
+        return node;
+    }
+
+    /**
+     * Gets the tree of the first elements of the given tree, the given tree is left unchanged.
+     */
+    private Node<T> splitLeft(Node<T> node, int index) {
+        if (node == null || index == 0) {
+            return null;
+        }
+
+        if (index >= node.size) {
+            return node;
+        }
+
+        if (index <= sizeOf(node.left)) {
+            return this.splitLeft(node.left, index);
+        }
+
+        Node<T> copy = new Node<>(node, owner);
+        copy.right = this.splitLeft(node.right, index - sizeOf(node.left) - 1);
+        copy.size = sizeOf(copy.left) + sizeOf(copy.right) + 1;
+
+        return copy;
+    }
+
+    /**
+     * Gets the tree of the elements of the given tree from the index on, the given tree is left unchanged.
+     */
+    private Node<T> splitRight(Node<T> node, int index) {
+        if (node == null || index >= node.size) {
+            return null;
+        }
+
+        if (index == 0) {
+            return node;
+        }
+
+        if (index > sizeOf(node.left)) {
+            return this.splitRight(node.right, index - sizeOf(node.left) - 1);
+        }
+
+        Node<T> copy = new Node<>(node, owner);
+        copy.left = this.splitRight(node.left, index);
+        copy.size = sizeOf(copy.left) + sizeOf(copy.right) + 1;
+
+        return copy;
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left = this.editable(left);
+            left.right = this.merge(left.right, right);
+            left.size = sizeOf(left.left) + sizeOf(left.right) + 1;
+
+            return left;
+        }
+
+        right = this.editable(right);
+        right.left = this.merge(left, right.left);
+        right.size = sizeOf(right.left) + sizeOf(right.right) + 1;
+
+        return right;
+    }
+
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * A node of the tree, it can only be changed in place by the list that owns it.
+     */
+    private static final class Node<T> {
+        private final Object owner;
+        private final int priority;
+        private T value;
+        private Node<T> left;
+        private Node<T> right;
+        private int size;
+
+        private Node(T value, Object owner) {
+            this.owner = owner;
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.value = value;
+            this.size = 1;
+        }
+
+        private Node(Node<T> node, Object owner) {
+            this.owner = owner;
+            this.priority = node.priority;
+            this.value = node.value;
+            this.left = node.left;
+            this.right = node.right;
+            this.size = node.size;
+        }
+    }
+
+    /**
+     * Visits the elements in order keeping the path to the next one, so a full iteration costs O(n).
+     */
+    private final class TreeIterator implements Iterator<T> {
+        private final ArrayDeque<Node<T>> path = new ArrayDeque<>();
+        private final int expectedModCount = modCount;
+
+        private TreeIterator() {
+            this.descend(root);
+        }
+
+        private void descend(Node<T> node) {
+            for (; node != null; node = node.left) {
+                path.push(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+
+            Node<T> node = path.pop();
+            this.descend(node.right);
+
+            return node.value;
+        }
+    }
+}
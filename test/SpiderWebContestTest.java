@@ -1,12 +1,38 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import spiderweb.bridges.Bridge;
+import spiderweb.bridges.BridgeSet;
+import spiderweb.contest.BridgePlanner;
+import spiderweb.contest.ContestInput;
+import spiderweb.contest.ContestInputReader;
+import spiderweb.contest.IncrementalSolver;
+import spiderweb.contest.SolverWorkspace;
+import spiderweb.contest.WalkIndex;
 import spiderweb.main.SpiderWeb;
 import spiderweb.main.SpiderWebContest;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SpiderWebContestTest {
 
@@ -43,6 +69,228 @@ public class SpiderWebContestTest {
         assertEquals(output2, spiderWeb2.solve(4, 1, input2));
     }
 
+    @Test
+    public void testSolverWorkspaceIsReusableBetweenInputs() {
+        SolverWorkspace workspace = new SolverWorkspace();
+        int[] answers = new int[7];
+
+        workspace.solve(7, 5, new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}}, answers);
+        assertArrayEquals(new int[]{2, 1, 1, 1, 0, 1, 2}, answers);
+
+        workspace.solve(4, 1, new int[][]{{1, 0}, {2, 1}, {3, 2}, {4, 3}}, answers);
+        assertArrayEquals(new int[]{1, 1, 0, 1}, Arrays.copyOf(answers, 4));
+
+        assertArrayEquals(new int[]{2, 1, 1, 1, 0, 1, 2}, workspace.solve(7, 5, new int[][]{{100, 4}, {80, 6}, {60, 2}, {40, 2}, {20, 0}}));
+    }
+
+    @Test
+    public void testSolveWithRunsLongerThanTwoToTheNineteen() {
+        int strandCount = 1_100_000;
+        int[] answers = new SolverWorkspace().solve(strandCount, 0, new int[][]{{10, 0}});
+
+        assertEquals(1, answers[0]);
+        assertEquals(0, answers[1]);
+        assertEquals(549_999, answers[550_000]);
+        assertEquals(1, answers[strandCount - 1]);
+    }
+
+    @Test
+    public void testSolvePairsMatchesSolveForEachFavorite() {
+        int[][] bridges = {{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}};
+        int strandCount = 7;
+        int[][] queries = new int[strandCount * strandCount][];
+
+        for (int favorite = 0; favorite < strandCount; favorite++) {
+            for (int start = 0; start < strandCount; start++) {
+                queries[start * strandCount + favorite] = new int[]{start, favorite};
+            }
+        }
+
+        SpiderWebContest contest = new SpiderWebContest();
+        int[] answers = contest.solvePairs(strandCount, bridges, queries);
+
+        for (int favorite = 0; favorite < strandCount; favorite++) {
+            ArrayList<Integer> expected = contest.solve(strandCount, favorite, bridges);
+
+            for (int start = 0; start < strandCount; start++) {
+                assertEquals(expected.get(start), answers[start * strandCount + favorite]);
+            }
+        }
+    }
+
+    @Test
+    public void testSolvePairsWithFewerStartsThanFavorites() {
+        int[][] bridges = {{1, 0}, {2, 1}, {3, 2}, {4, 3}, {5, 4}, {3, 8}};
+        int strandCount = 10;
+        int[][] queries = new int[2 * strandCount][];
+
+        for (int favorite = 0; favorite < strandCount; favorite++) {
+            queries[2 * favorite] = new int[]{0, favorite};
+            queries[2 * favorite + 1] = new int[]{6, favorite};
+        }
+
+        SpiderWebContest contest = new SpiderWebContest();
+        int[] answers = contest.solvePairs(strandCount, bridges, queries);
+
+        for (int favorite = 0; favorite < strandCount; favorite++) {
+            ArrayList<Integer> expected = contest.solve(strandCount, favorite, bridges);
+
+            assertEquals(expected.get(0), answers[2 * favorite]);
+            assertEquals(expected.get(6), answers[2 * favorite + 1]);
+        }
+
+        assertEquals(1, answers[0]);
+    }
+
+    @Test
+    public void testSolveWithBridgesAtTheSameDistance() {
+        int[][] bridges = {{50, 0}, {50, 2}, {50, 4}, {50, 6}, {30, 1}, {70, 3}};
+        int[][] reordered = {{70, 3}, {50, 6}, {30, 1}, {50, 4}, {50, 0}, {50, 2}};
+        int[] expected = {2, 1, 2, 1, 0, 1, 2, 1};
+        SpiderWebContest contest = new SpiderWebContest();
+        IncrementalSolver solver = new IncrementalSolver(8, new int[]{5});
+
+        for (int[] bridge : reordered) {
+            solver.addBridge(bridge[0], bridge[1]);
+        }
+
+        assertArrayEquals(expected, contest.solve(8, new int[]{5}, bridges));
+        assertArrayEquals(expected, contest.solve(8, new int[]{5}, reordered));
+        assertArrayEquals(expected, solver.getAnswers());
+        assertArrayEquals(new int[]{1, 4, 0, 2, 5, 3, 7, 6}, contest.getFinalStrandsBySimulatingMovement(8, reordered));
+        assertArrayEquals(new int[]{expected[6], 0}, contest.solvePairs(8, reordered, new int[][]{{6, 5}, {4, 5}}));
+    }
+
+    @Test
+    public void testSolveCrossesBridgesAtTheSameDistanceAtOnce() throws Exception {
+        // Relaxing between the bridges at distance 100 would let strand 0 reach the favorite with one bridge
+        int[][] bridges = {{100, 4}, {100, 1}, {400, 3}, {100, 6}, {300, 0}, {400, 5}};
+        int[] expected = {2, 1, 2, 1, 1, 0, 1};
+        SpiderWebContest contest = new SpiderWebContest();
+        IncrementalSolver solver = new IncrementalSolver(7, new int[]{3});
+
+        for (int[] bridge : bridges) {
+            solver.addBridge(bridge[0], bridge[1]);
+        }
+
+        assertArrayEquals(expected, contest.solve(7, new int[]{3}, bridges));
+        assertArrayEquals(expected, solver.getAnswers());
+        assertArrayEquals(new int[]{expected[0]}, contest.solvePairs(7, bridges, new int[][]{{0, 3}}));
+        assertEquals(3, contest.simulate(7, 3, bridges, 0).getCurrentStrand());
+    }
+
+    @Test
+    public void testSolveWithoutBridges() {
+        int[][] bridges = {};
+        SpiderWebContest contest = new SpiderWebContest();
+        int[][] witness = new SolverWorkspace().witness(7, 2, bridges, 5, 100);
+        BridgeSet bridgeSet = new BridgeSet();
+
+        for (int[] bridge : witness) {
+            bridgeSet.add(bridge[0], bridge[1]);
+        }
+
+        assertArrayEquals(new int[]{2, 1, 0, 1, 2, 3, 3}, contest.solve(7, new int[]{2}, bridges));
+        assertArrayEquals(new int[]{2, 1, 0, 1, 2, 3, 3}, new IncrementalSolver(7, new int[]{2}).getAnswers());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6}, contest.getFinalStrandsBySimulatingMovement(7, bridges));
+        assertArrayEquals(new int[]{3, 0, 1}, contest.solvePairs(7, bridges, new int[][]{{5, 2}, {4, 4}, {0, 6}}));
+        assertEquals(3, witness.length);
+        assertEquals(2, WalkIndex.of(7, bridgeSet).walk(5));
+    }
+
+    @Test
+    public void testSolveWithASingleStrand() {
+        int[][] bridges = {{10, 0}, {20, 0}};
+        SpiderWebContest contest = new SpiderWebContest();
+
+        assertEquals(List.of(0), contest.solve(1, 0, bridges));
+        assertArrayEquals(new int[]{0}, contest.getFinalStrandsBySimulatingMovement(1, bridges));
+        assertArrayEquals(new int[]{0}, contest.solvePairs(1, bridges, new int[][]{{0, 0}}));
+        assertEquals(0, new SolverWorkspace().witness(1, 0, bridges, 0, 100).length);
+    }
+
+    @Test
+    public void testSolveWithSeveralFavoriteStrands() throws Exception {
+        int[][] bridges = {{15, 1}, {30, 3}, {45, 0}, {60, 5}, {75, 2}, {90, 6}, {105, 4}};
+        SpiderWebContest contest = new SpiderWebContest();
+
+        ArrayList<Integer> toFive = contest.solve(8, 5, bridges);
+        ArrayList<Integer> toOne = contest.solve(8, 1, bridges);
+        int[] toAny = contest.solve(8, new SpiderWeb(8, new int[]{5, 1}, bridges).getFavoriteStrands(), bridges);
+
+        for (int strand = 0; strand < 8; strand++) {
+            assertEquals(Math.min(toFive.get(strand), toOne.get(strand)), toAny[strand]);
+        }
+    }
+
+    @Test
+    public void testAttachedSolverFollowsBridgeChanges() throws Exception {
+        int[][] bridges = {{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}};
+        SpiderWeb spiderWeb = new SpiderWeb(7, 5, bridges);
+        SpiderWebContest contest = new SpiderWebContest();
+        IncrementalSolver solver = spiderWeb.attachSolver();
+
+        assertArrayEquals(contest.solve(7, new int[]{5}, bridges), solver.getAnswers());
+
+        spiderWeb.addBridge("new", 70, 3);
+        spiderWeb.removeBridge("2-40");
+        spiderWeb.relocateBridge("0-20", 50);
+
+        assertArrayEquals(contest.solve(7, new int[]{5}, spiderWeb.getBridgesAsConsoleInput()), solver.getAnswers());
+    }
+
+    @Test
+    public void testIncrementalSolverWithManyBlocks() {
+        SpiderWebContest contest = new SpiderWebContest();
+        IncrementalSolver solver = new IncrementalSolver(40, new int[]{3, 17});
+        TreeSet<Long> bridges = new TreeSet<>();
+        Random random = new Random(5);
+
+        for (int step = 0; step < 3000; step++) {
+            int distance = random.nextInt(5000);
+            int strand = random.nextInt(40);
+
+            if (step % 3 == 2 && !bridges.isEmpty()) {
+                Long bridge = bridges.ceiling(((long) distance << 32) | strand);
+
+                if (bridge == null)
+                    bridge = bridges.first();
+
+                bridges.remove(bridge);
+                assertTrue(solver.removeBridge((int) (bridge >>> 32), (int) (long) bridge));
+            } else if (bridges.add(((long) distance << 32) | strand)) {
+                assertTrue(solver.addBridge(distance, strand));
+            }
+
+            if (step % 250 == 0 || step > 2900) {
+                int[][] console = bridges.stream().map(bridge -> new int[]{(int) (bridge >>> 32), (int) (long) bridge}).toArray(int[][]::new);
+                int[] expected = contest.solve(40, new int[]{3, 17}, console);
+
+                assertArrayEquals(expected, solver.getAnswers());
+                assertEquals(expected[strand], solver.getAnswer(strand));
+            }
+        }
+    }
+
+    @Test
+    public void testReadContestInputFromFile(@TempDir Path directory) throws Exception {
+        Path input = directory.resolve("input.txt");
+        Files.writeString(input, "7 5\n20 0\n40 2\n60 2\r\n80 6\n100 4");
+
+        ContestInput contestInput = ContestInputReader.read(input);
+
+        assertEquals(7, contestInput.getStrandCount());
+        assertEquals(5, contestInput.getFavoriteStrand());
+        assertArrayEquals(new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}}, contestInput.getBridges().toArray());
+
+        SpiderWebContest contest = new SpiderWebContest();
+        assertEquals(contest.solve(7, 5, new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}}),
+                contest.solve(contestInput.getStrandCount(), contestInput.getFavoriteStrand(), contestInput.getBridges()));
+
+        Files.writeString(input, "7 5\n20");
+        assertThrows(IOException.class, () -> ContestInputReader.read(input));
+    }
+
     @Test
     public void testGetFinalStrandBySimulatingMovement() {
 
@@ -56,7 +304,7 @@ public class SpiderWebContestTest {
             bridges = new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}};
             spiderWeb = new SpiderWeb(7, 5, bridges);
 
-            ArrayList<Bridge> bridgesList = spiderWeb.getBridges();
+            List<Bridge> bridgesList = spiderWeb.getBridges();
 
             assertEquals(1, contest.getFinalStrandBySimulatingMovement(0, bridgesList));
             assertEquals(6, contest.getFinalStrandBySimulatingMovement(1, bridgesList));
@@ -79,6 +327,104 @@ public class SpiderWebContestTest {
         }
     }
 
+    @Test
+    public void testGetFinalStrandsBySimulatingMovementFromEveryStrand() {
+
+        SpiderWebContest contest = new SpiderWebContest();
+
+        assertArrayEquals(new int[]{1, 6, 2, 3, 5, 4, 0},
+                contest.getFinalStrandsBySimulatingMovement(7, new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}}));
+        assertArrayEquals(new int[]{2, 1, 0},
+                contest.getFinalStrandsBySimulatingMovement(3, new int[][]{{10, 0}, {30, 0}, {50, 0}, {20, 1}, {40, 1}, {60, 1}, {100, 2}}));
+    }
+
+    @Test
+    public void testWitnessReachesTheFavoriteStrand() {
+        int[][] bridges = {{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}};
+        SolverWorkspace workspace = new SolverWorkspace();
+        int[] answers = workspace.solve(7, 5, bridges);
+
+        for (int strand = 0; strand < 7; strand++) {
+            int[][] witness = workspace.witness(7, 5, bridges, strand, 120);
+            BridgeSet bridgeSet = BridgeSet.of(bridges);
+
+            for (int[] bridge : witness) {
+                bridgeSet.add(bridge[0], bridge[1]);
+            }
+
+            assertEquals(answers[strand], witness.length);
+            assertEquals(5, WalkIndex.of(7, bridgeSet).walk(strand));
+        }
+    }
+
+    @Test
+    public void testBuildBridgesWhenTheWitnessDoesNotFit() throws Exception {
+        // The bridges are one unit apart, so the witness has no room between them
+        int[][] bridges = {{11, 1}, {11, 3}, {12, 1}};
+        SpiderWeb spiderWeb = new SpiderWeb(5, 1, bridges);
+        SpiderWebContest contest = new SpiderWebContest();
+        SolverWorkspace workspace = new SolverWorkspace();
+        int[] answers = workspace.solve(5, 1, bridges);
+
+        assertNull(workspace.witness(5, 1, bridges, 3, spiderWeb.getRadio()));
+
+        ArrayList<Bridge> plan = contest.buildBridges(3, 1, answers[3], new ArrayList<>(), spiderWeb);
+        BridgeSet bridgeSet = BridgeSet.of(bridges);
+
+        for (Bridge bridge : plan) {
+            bridgeSet.add(bridge.getDistance(), bridge.getInitialStrand());
+        }
+
+        assertEquals(answers[3], plan.size());
+        assertEquals(1, WalkIndex.of(5, bridgeSet).walk(3));
+        assertEquals(1, contest.simulate(5, 1, bridges, 3).getCurrentStrand());
+    }
+
+    @Test
+    public void testBridgePlannerSequentiallyOnAPoolAndConcurrently() throws Exception {
+        int[][] bridges = {{15, 1}, {30, 3}, {45, 0}, {60, 5}, {75, 2}};
+        int strandCount = 6;
+        int favoriteStrand = 3;
+        BridgePlanner planner = new BridgePlanner(strandCount, 100, 5);
+        int[] answers = new SolverWorkspace().solve(strandCount, favoriteStrand, bridges);
+        int[][][] plans = new int[3 * strandCount][][];
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ExecutorService callers = Executors.newFixedThreadPool(strandCount);
+
+        try {
+            ArrayList<Future<int[][]>> concurrent = new ArrayList<>();
+
+            for (int strand = 0; strand < strandCount; strand++) {
+                int initialStrand = strand;
+
+                plans[strand] = planner.plan(bridges, strand, favoriteStrand, answers[strand]);
+                plans[strandCount + strand] = planner.plan(bridges, strand, favoriteStrand, answers[strand], pool);
+                concurrent.add(callers.submit(() -> planner.plan(bridges, initialStrand, favoriteStrand, answers[initialStrand], pool)));
+            }
+
+            for (int strand = 0; strand < strandCount; strand++) {
+                plans[2 * strandCount + strand] = concurrent.get(strand).get();
+            }
+        } finally {
+            callers.shutdown();
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < plans.length; i++) {
+            int strand = i % strandCount;
+            BridgeSet bridgeSet = BridgeSet.of(bridges);
+
+            for (int[] bridge : plans[i]) {
+                bridgeSet.add(bridge[0], bridge[1]);
+            }
+
+            assertEquals(answers[strand], plans[i].length);
+            assertEquals(favoriteStrand, WalkIndex.of(strandCount, bridgeSet).walk(strand));
+        }
+
+        assertNull(planner.plan(bridges, 0, favoriteStrand, answers[0] - 1));
+    }
+
     @Test
     public void testSimulateWithDifferentInputs() {
 
@@ -108,4 +454,38 @@ public class SpiderWebContestTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void testFlightRecorderEventsForSolverPhasesAndHops(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("spiderweb.jfr");
+        SpiderWeb spiderWeb = new SpiderWeb(7, 4, new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}});
+
+        try (Recording recording = new Recording()) {
+            recording.enable("spiderweb.SolverPhase");
+            recording.enable("spiderweb.WalkHop");
+            recording.start();
+
+            new SpiderWebContest().solve(7, 4, new int[][]{{20, 0}, {40, 2}, {60, 2}, {80, 6}, {100, 4}});
+
+            spiderWeb.moveSpiderTo(4);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        ArrayList<String> phases = new ArrayList<>();
+        int hops = 0;
+
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("spiderweb.SolverPhase")) {
+                phases.add(event.getString("phase"));
+            } else if (event.getEventType().getName().equals("spiderweb.WalkHop")) {
+                hops++;
+            }
+        }
+
+        assertEquals(Arrays.asList("sort", "init", "sweep"), phases);
+        assertTrue(hops > 0);
+        assertEquals(spiderWeb.getUsedBridges().size(), hops);
+    }
 }
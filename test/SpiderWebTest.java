@@ -1,11 +1,26 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import shape.AnimationClock;
+import shape.AnimationScheduler;
 import shape.Canvas;
+import shape.Renderers;
 import spiderweb.bridges.Bridge;
+import spiderweb.bridges.BridgeSet;
 import spiderweb.main.SpiderWeb;
-
+import spiderweb.metrics.Metrics;
+import spiderweb.spider.Spider;
+import spiderweb.strands.KillerStrand;
+import spiderweb.strands.Strand;
+import utilities.Message;
+import utilities.MessageChannel;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -261,6 +276,24 @@ class SpiderWebTest {
         assertEquals(-1, spiderWeb.getFavoriteStrand());
     }
 
+    /**
+     * Test to keep several favorite strands at once and remove them one by one.
+     */
+    @Test
+    public void testSeveralFavoriteStrands() {
+        spiderWeb.addFavoriteStrand(2);
+        spiderWeb.addFavoriteStrand(4);
+        assertTrue(spiderWeb.isLastActionWasOk());
+        assertArrayEquals(new int[]{2, 4}, spiderWeb.getFavoriteStrands());
+
+        spiderWeb.addFavoriteStrand(4);
+        assertFalse(spiderWeb.isLastActionWasOk());
+
+        spiderWeb.removeFavoriteStrand(2);
+        assertTrue(spiderWeb.isLastActionWasOk());
+        assertEquals(4, spiderWeb.getFavoriteStrand());
+    }
+
     /**
      * Test to respawn the spider in the center of the canvas. **/
     @Test
@@ -282,6 +315,267 @@ class SpiderWebTest {
         assertFalse(spiderWeb.getSpider().isAlive());
         assertTrue(spiderWeb.isLastActionWasOk());
     }
-}
 
+    /**
+     * Tests that a snapshot keeps its bridges and strand types while the original spider web changes.
+     **/
+    @Test
+    public void testCopyIsNotChangedByTheOriginal() {
+        spiderWeb.addBridge("fixed", 40, 0, Bridge.Types.FIXED);
+        spiderWeb.addFavoriteStrand(2, Strand.Types.KILLER);
+
+        SpiderWeb snapshot = spiderWeb.copy();
+
+        spiderWeb.removeBridge("1");
+        spiderWeb.addBridge("10", 30, 1);
+        spiderWeb.removeFavoriteStrand(2);
+
+        assertEquals(10, snapshot.getBridges().size());
+        assertTrue(snapshot.getBridges().stream().anyMatch(bridge -> bridge.getType() == Bridge.Types.FIXED));
+        assertTrue(snapshot.getBridges().stream().noneMatch(bridge -> bridge.getColor().equals("10")));
+        assertTrue(snapshot.getStrands().get(2) instanceof KillerStrand);
+        assertArrayEquals(new int[]{2}, snapshot.getFavoriteStrands());
+
+        assertEquals(10, spiderWeb.getBridges().size());
+        assertTrue(spiderWeb.getBridges().stream().noneMatch(bridge -> bridge.getColor().equals("1")));
+        assertArrayEquals(new int[0], spiderWeb.getFavoriteStrands());
+    }
+
+    /**
+     * Tests that a batch of bridges skips the invalid ones and keeps the valid ones.
+     **/
+    @Test
+    public void testAddBridgesSkipsTheInvalidOnes() {
+        BridgeSet bridges = new BridgeSet();
+        bridges.add(30, 0);
+        bridges.add(30, 1);
+        bridges.add(50, 9);
+        bridges.add(100, 3);
+        bridges.add(70, 2);
+
+        spiderWeb.addBridges(bridges);
+
+        assertFalse(spiderWeb.isLastActionWasOk());
+        assertEquals(12, spiderWeb.getBridges().size());
+        assertTrue(spiderWeb.getBridges().stream().anyMatch(bridge -> bridge.getColor().equals("0-30")));
+        assertTrue(spiderWeb.getBridges().stream().anyMatch(bridge -> bridge.getColor().equals("3-100")));
+        assertTrue(spiderWeb.getBridges().stream().anyMatch(bridge -> bridge.getColor().equals("2-70")));
+    }
+
+    /**
+     * Tests that inserting and removing strands in the middle keeps every bridge on the strands it joins.
+     **/
+    @Test
+    public void testInsertAndRemoveStrandInTheMiddle() {
+        int[] finalStrands = spiderWeb.getFinalStrands();
+
+        spiderWeb.insertStrandAt(3);
+        assertTrue(spiderWeb.isLastActionWasOk());
+        assertEquals(8, spiderWeb.getStrandCount());
+        assertTrue(spiderWeb.getBridges().stream().anyMatch(bridge -> bridge.getColor().equals("3") && bridge.getInitialStrand() == 4));
+        assertTrue(spiderWeb.getBridges().stream().anyMatch(bridge -> bridge.getColor().equals("2") && bridge.getFinalStrand() == 3));
+
+        spiderWeb.removeStrand(3);
+        assertTrue(spiderWeb.isLastActionWasOk());
+        assertEquals(7, spiderWeb.getStrandCount());
+        assertEquals(8, spiderWeb.getBridges().size());
+        assertTrue(spiderWeb.getBridges().stream().noneMatch(bridge -> bridge.getColor().equals("2")));
+
+        spiderWeb.addBridge("2", 120, 2);
+        assertArrayEquals(finalStrands, spiderWeb.getFinalStrands());
+    }
+
+    /**
+     * Tests that inserting a strand in the middle renumbers the bridges after it, keeping their distances,
+     * colors, types and order, and joining each one to the strand after its new initial strand.
+     **/
+    @Test
+    public void testInsertStrandInTheMiddleKeepsTheBridges() {
+        ArrayList<Bridge> before = new ArrayList<>(spiderWeb.getBridges());
+
+        spiderWeb.insertStrandAt(3);
+        assertTrue(spiderWeb.isLastActionWasOk());
+
+        ArrayList<Bridge> after = new ArrayList<>(spiderWeb.getBridges());
+        assertEquals(before.size(), after.size());
+
+        for (int i = 0; i < before.size(); i++) {
+            Bridge old = before.get(i);
+            Bridge renumbered = after.get(i);
+            int initialStrand = old.getInitialStrand() >= 3 ? old.getInitialStrand() + 1 : old.getInitialStrand();
+
+            assertEquals(old.getColor(), renumbered.getColor());
+            assertEquals(old.getDistance(), renumbered.getDistance());
+            assertEquals(old.getType(), renumbered.getType());
+            assertEquals(initialStrand, renumbered.getInitialStrand());
+            assertEquals((initialStrand + 1) % 8, renumbered.getFinalStrand());
+        }
+
+        // The bridges are found by their color after the renumbering
+        spiderWeb.relocateBridge("5", 190);
+        assertTrue(spiderWeb.isLastActionWasOk());
+        assertTrue(spiderWeb.getBridges().stream().anyMatch(bridge -> bridge.getDistance() == 190 && bridge.getInitialStrand() == 6));
+    }
+
+    /**
+     * Tests that a huge radio is drawn inside the canvas and the spider follows the zoom.
+     **/
+    @Test
+    public void testHugeRadioFitsTheCanvas() {
+        spiderWeb.expandRadio(1_000_000_000);
+        spiderWeb.moveSpiderTo(0);
+
+        Point end = spiderWeb.getSpider().getPosition();
+        assertTrue(end.x >= 0 && end.x <= Canvas.WIDTH && end.y >= 0 && end.y <= Canvas.HEIGHT);
+
+        spiderWeb.zoom(0.5);
+        assertTrue(spiderWeb.isLastActionWasOk());
+        assertEquals(Canvas.CENTER.distance(end) / 2, Canvas.CENTER.distance(spiderWeb.getSpider().getPosition()), 1);
+    }
+
+    /**
+     * Tests that the animations are played on a virtual clock, at any speed or not at all.
+     **/
+    @Test
+    public void testAnimationsFollowTheVirtualClock() throws InterruptedException {
+        AnimationClock clock = new AnimationClock();
+        AnimationScheduler scheduler = new AnimationScheduler(clock);
+        int[] drawnFrames = new int[1];
+
+        clock.setSpeed(1000);
+        scheduler.submit(10, (renderer, frame) -> drawnFrames[0]++);
+        scheduler.awaitIdle();
 
+        assertEquals(10, drawnFrames[0]);
+        assertEquals(9 * AnimationScheduler.FRAME_MILLISECONDS, clock.getVirtualMillis());
+
+        clock.setSpeed(0);
+        scheduler.submit(10, (renderer, frame) -> drawnFrames[0] += frame);
+        scheduler.awaitIdle();
+
+        assertEquals(19, drawnFrames[0]);
+        assertEquals(9 * AnimationScheduler.FRAME_MILLISECONDS, clock.getVirtualMillis());
+    }
+
+    /**
+     * Tests that once the canvas has seen the shapes of a spider, the frames of its walks allocate
+     * nothing on the animation thread: a walk of a thousand frames allocates as much as a walk of one.
+     **/
+    @Test
+    public void testSpiderFramesAllocateNothingOnTheAnimationThread() throws InterruptedException {
+        AnimationScheduler scheduler = AnimationScheduler.getInstance();
+        double speed = scheduler.getClock().getSpeed();
+        Spider spider = new Spider(new Point(0, 0));
+        long shortWalk;
+        long longWalk;
+
+        // Out of test mode, so the walks are animated
+        SpiderWeb.TEST_MODE = false;
+        Renderers.use(Canvas.getCanvas());
+        scheduler.getClock().setSpeed(AnimationClock.UNLIMITED);
+
+        try {
+            spider.makeVisible();
+
+            for (int i = 0; i < 2000; i++) {
+                spider.moveTo(new Point(400 * (i % 2), 400));
+            }
+
+            shortWalk = allocatedByWalk(scheduler, spider, new Point(400, 402));
+            longWalk = allocatedByWalk(scheduler, spider, new Point(4000, 4000));
+        } finally {
+            scheduler.getClock().setSpeed(speed);
+            Renderers.use(null);
+            SpiderWeb.TEST_MODE = true;
+        }
+
+        assertEquals(shortWalk, longWalk);
+    }
+
+    /**
+     * Measures the bytes allocated on the animation thread while the spider walks to the point.
+     */
+    private static long allocatedByWalk(AnimationScheduler scheduler, Spider spider, Point point) throws InterruptedException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] allocated = new long[2];
+
+        scheduler.submit(1, (renderer, frame) -> allocated[0] = threads.getThreadAllocatedBytes(Thread.currentThread().getId()));
+        spider.moveTo(point);
+        scheduler.submit(1, (renderer, frame) -> allocated[1] = threads.getThreadAllocatedBytes(Thread.currentThread().getId()));
+        scheduler.awaitIdle();
+
+        return allocated[1] - allocated[0];
+    }
+
+    /**
+     * Tests that publishing never waits for the sinks, and that the full channel and the rate limits are counted.
+     **/
+    @Test
+    public void testMessageChannelDropsAndRateLimits() {
+        MessageChannel channel = new MessageChannel(4);
+        ArrayList<Message> shown = new ArrayList<>();
+        channel.addSink(shown::add, 2);
+
+        for (int i = 0; i < 6; i++) {
+            channel.publish(new Message(Message.Kind.ERROR, "Error", "Bridge " + i));
+        }
+
+        assertTrue(shown.isEmpty());
+        assertEquals(6, channel.getPublishedCount(Message.Kind.ERROR));
+        assertEquals(2, channel.getDroppedCount());
+
+        assertEquals(4, channel.drain());
+        assertEquals(2, shown.size());
+        assertEquals("Bridge 2", shown.get(0).getText());
+        assertEquals(2, channel.getSuppressedCount());
+        assertEquals(0, channel.getPendingCount());
+    }
+
+    /**
+     * Tests that a message published while a sink drains from inside a drain, like a modal dialog does,
+     * is given by the running drain, and that a sink that is turned off doesn't count its limit.
+     **/
+    @Test
+    public void testMessageChannelDrainsMessagesPublishedDuringADrain() {
+        MessageChannel channel = new MessageChannel(4);
+        ArrayList<Message> shown = new ArrayList<>();
+        ArrayList<Integer> nested = new ArrayList<>();
+
+        channel.addSink(message -> {
+            shown.add(message);
+
+            if (shown.size() == 1) {
+                channel.publish(new Message(Message.Kind.INFO, "Info", "Second"));
+                nested.add(channel.drain());
+            }
+        }, 10);
+        channel.addSink(message -> fail("The sink is turned off"), 1, () -> false);
+
+        channel.publish(new Message(Message.Kind.INFO, "Info", "First"));
+
+        assertEquals(2, channel.drain());
+        assertEquals(List.of(0), nested);
+        assertEquals("Second", shown.get(1).getText());
+        assertEquals(0, channel.getPendingCount());
+        assertEquals(0, channel.getSuppressedCount());
+    }
+
+    /**
+     * Tests that the walks and the bridges are counted and can be read through JMX.
+     **/
+    @Test
+    public void testMetricsAreReadThroughJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        long walks = Metrics.web().getWalks();
+        long added = Metrics.web().getBridgesAdded();
+
+        spiderWeb.moveSpiderTo(0);
+        spiderWeb.addBridge("new", 130, 0);
+
+        ObjectName name = new ObjectName("spiderweb:type=Web");
+        assertEquals(walks + 1, (Long) server.getAttribute(name, "Walks"));
+        assertEquals(added + 1, (Long) server.getAttribute(name, "BridgesAdded"));
+        assertTrue(Metrics.web().getBridgeActions().get("NORMAL") > 0);
+        assertTrue(Metrics.web().getValidationLatency().getCount() > 0);
+    }
+}